@@ -70,6 +70,20 @@ public class AnimParameter {
         this.rotation = rotation;
     }
 
+    /**
+     * Copy all values of the given parameter.
+     *
+     * @param parameter the parameter to copy from
+     */
+    public void set(AnimParameter parameter) {
+        this.x = parameter.x;
+        this.y = parameter.y;
+        this.alpha = parameter.alpha;
+        this.scaleX = parameter.scaleX;
+        this.scaleY = parameter.scaleY;
+        this.rotation = parameter.rotation;
+    }
+
     @Override
     public String toString() {
         return "AnimParameter{" +
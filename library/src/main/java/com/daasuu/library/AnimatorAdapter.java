@@ -0,0 +1,47 @@
+package com.daasuu.library;
+
+import android.graphics.Canvas;
+
+import com.daasuu.library.animator.BaseAnimator;
+
+/**
+ * Gives an {@link Animator} which does not extend {@link BaseAnimator} the defaults of BaseAnimator.
+ */
+class AnimatorAdapter extends BaseAnimator {
+
+    private final Animator mAnimator;
+
+    AnimatorAdapter(Animator animator) {
+        mAnimator = animator;
+    }
+
+    @Override
+    public void updateAnimParam(AnimParameter animParameter) {
+        mAnimator.updateAnimParam(animParameter);
+    }
+
+    @Override
+    public void setBaseLine(Canvas canvas, float width, float height) {
+        mAnimator.setBaseLine(canvas, width, height);
+    }
+
+    @Override
+    public AnimParameter getInitialAnimParameter() {
+        return mAnimator.getInitialAnimParameter();
+    }
+
+    @Override
+    public void setUp(long fps) {
+        mAnimator.setUp(fps);
+    }
+
+    @Override
+    public void pause(boolean pause) {
+        mAnimator.pause(pause);
+    }
+
+    @Override
+    public boolean isPause() {
+        return mAnimator.isPause();
+    }
+}
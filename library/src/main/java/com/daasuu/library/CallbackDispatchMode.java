@@ -0,0 +1,18 @@
+package com.daasuu.library;
+
+/**
+ * How {@link com.daasuu.library.callback.AnimCallBack}s of tweens, parabolic motions and sprite sheets are called.
+ */
+public enum CallbackDispatchMode {
+
+    /**
+     * Called on the drawing thread in the middle of the frame, while the canvas is locked.
+     */
+    INLINE,
+
+    /**
+     * Queued while the frame is drawn, and called in order in one batch after the frame is posted,
+     * on the UI thread or the executor set to FPSTextureView or FPSSurfaceView.
+     */
+    DEFERRED
+}
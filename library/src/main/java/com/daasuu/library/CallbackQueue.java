@@ -0,0 +1,175 @@
+package com.daasuu.library;
+
+import android.support.annotation.NonNull;
+
+import com.daasuu.library.callback.AnimCallBack;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free queue of callbacks, written by the drawing thread and drained in order by the UI thread or an executor.
+ * Callbacks go to a single-producer single-consumer ring buffer, and to an overflow queue only while the ring is full.
+ */
+public final class CallbackQueue {
+
+    /**
+     * The queue of the frame being drawn on this thread, or null to call the callbacks inline.
+     */
+    private static final ThreadLocal<CallbackQueue> sCurrent = new ThreadLocal<>();
+
+    private final AnimCallBack[] mRing;
+
+    private final int mMask;
+
+    /**
+     * The sequence number of the next callback to be read by the consumer.
+     */
+    private final AtomicLong mHead = new AtomicLong();
+
+    /**
+     * The sequence number of the next callback to be written by the producer.
+     */
+    private final AtomicLong mTail = new AtomicLong();
+
+    /**
+     * Callbacks which did not fit in the ring. Once it is not empty, every callback goes here until it is drained,
+     * and each one is called only after the callbacks written to the ring before it, so the order is preserved.
+     */
+    private final ConcurrentLinkedQueue<Overflowed> mOverflow = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean mDrainScheduled = new AtomicBoolean(false);
+
+    private volatile Executor mExecutor;
+
+    private final Runnable mDrain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    /**
+     * Call the callback, or queue it if the frame being drawn on this thread defers callbacks.
+     * This is called by animators and sprite sheets instead of {@link AnimCallBack#call()}.
+     *
+     * @param callBack callback
+     */
+    public static void dispatch(@NonNull AnimCallBack callBack) {
+        CallbackQueue queue = sCurrent.get();
+        if (queue == null) {
+            callBack.call();
+        } else {
+            queue.offer(callBack);
+        }
+    }
+
+    /**
+     * Start deferring the callbacks dispatched on this thread to the queue.
+     *
+     * @param queue queue, or null to call them inline
+     */
+    static void begin(CallbackQueue queue) {
+        sCurrent.set(queue);
+    }
+
+    static void end() {
+        sCurrent.set(null);
+    }
+
+    /**
+     * @param capacity The capacity of the ring, rounded up to a power of two
+     * @param executor The executor which drains the queue
+     */
+    CallbackQueue(int capacity, @NonNull Executor executor) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mRing = new AnimCallBack[size];
+        mMask = size - 1;
+        mExecutor = executor;
+    }
+
+    /**
+     * Set the executor which drains the queue. The queued callbacks are drained by the new one from the next frame.
+     *
+     * @param executor executor
+     */
+    void setExecutor(@NonNull Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Queue the callback. This is called only from the drawing thread.
+     */
+    void offer(AnimCallBack callBack) {
+        long tail = mTail.get();
+        if (mOverflow.isEmpty() && tail - mHead.get() < mRing.length) {
+            mRing[(int) (tail & mMask)] = callBack;
+            mTail.lazySet(tail + 1);
+        } else {
+            mOverflow.offer(new Overflowed(callBack, tail));
+        }
+    }
+
+    /**
+     * Let the executor drain the queued callbacks, unless it is already going to.
+     * This is called from the drawing thread after the frame is posted.
+     */
+    void schedule() {
+        if (!isEmpty() && mDrainScheduled.compareAndSet(false, true)) {
+            mExecutor.execute(mDrain);
+        }
+    }
+
+    private boolean isEmpty() {
+        return mTail.get() == mHead.get() && mOverflow.isEmpty();
+    }
+
+    /**
+     * Call the queued callbacks in order. Only one drain runs at a time.
+     * The ring is read up to the live tail, and an overflowed callback is called only when the ring has been read
+     * up to the tail at the time it overflowed, since the producer may write to the ring again while draining.
+     */
+    private void drain() {
+        long head = mHead.get();
+        while (true) {
+            if (head < mTail.get()) {
+                int index = (int) (head & mMask);
+                AnimCallBack callBack = mRing[index];
+                mRing[index] = null;
+                head++;
+                mHead.lazySet(head);
+                callBack.call();
+                continue;
+            }
+
+            Overflowed overflowed = mOverflow.peek();
+            if (overflowed == null) {
+                break;
+            }
+            if (overflowed.ringTail > head) {
+                // the callbacks written to the ring before it come first
+                continue;
+            }
+            mOverflow.poll();
+            overflowed.callBack.call();
+        }
+
+        mDrainScheduled.set(false);
+        schedule();
+    }
+
+    /**
+     * A callback which did not fit in the ring, with the tail of the ring when it was queued.
+     */
+    private static final class Overflowed {
+        private final AnimCallBack callBack;
+        private final long ringTail;
+
+        private Overflowed(AnimCallBack callBack, long ringTail) {
+            this.callBack = callBack;
+            this.ringTail = ringTail;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.daasuu.library;
+
+/**
+ * Policy applied to a display object when its animator has finished, such as a tween which does not loop.
+ * The policy is applied at the end of the frame in which the last animation parameter is drawn.
+ */
+public enum CompletionPolicy {
+
+    /**
+     * Kept in the display list and drawn at the last animation parameter.
+     */
+    KEEP,
+
+    /**
+     * Kept in the display list, but neither updated nor drawn any more, until it is reset.
+     */
+    HIDE,
+
+    /**
+     * Removed from FPSTextureView, FPSSurfaceView or the Container, and returned to its pool if it was obtained from one.
+     */
+    REMOVE
+}
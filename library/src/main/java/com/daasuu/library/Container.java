@@ -1,10 +1,15 @@
 package com.daasuu.library;
 
 
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
+import android.graphics.RectF;
 import android.support.annotation.NonNull;
 
+import com.daasuu.library.constant.Constant;
 import com.daasuu.library.drawer.BaseDrawer;
 
 import java.util.ArrayList;
@@ -16,14 +21,58 @@ import java.util.List;
  * For example you could group arm, leg, torso and head Bitmap instances together into a Person Container,
  * and transform them as a group, while still being able to move the individual parts relative to each other.
  * Children of containers have their transform and alpha properties concatenated with their parent Container.
+ * Containers can be nested to any depth. The transform of a child is concatenated as a matrix,
+ * so the children of a rotated or scaled Container are placed correctly.
  */
 public class Container extends DisplayBase {
 
-    private static final long DEFAULT_FPS = -1;
+    private final List<DisplayBase> mDrawingList = new ArrayList<>();
 
-    private long mFps = DEFAULT_FPS;
+    /**
+     * If true, the children are drawn into mCacheBitmap while they are static, and the bitmap is drawn instead of them.
+     */
+    private volatile boolean mCacheAsBitmap = false;
 
-    private final List<DisplayObject> mDrawingList = new ArrayList<>();
+    /**
+     * Incremented every time the display list is changed or the cache is invalidated.
+     */
+    private volatile int mContentVersion = 0;
+
+    /**
+     * mContentVersion when the children were drawn last.
+     */
+    private int mDrawnContentVersion = -1;
+
+    private boolean mCacheValid = false;
+
+    private Bitmap mCacheBitmap;
+
+    private final Canvas mCacheCanvas = new Canvas();
+
+    private final Paint mCachePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private final Matrix mCacheMatrix = new Matrix();
+
+    private final RectF mCacheBounds = new RectF();
+
+    private final RectF mChildBounds = new RectF();
+
+    /**
+     * The offset of mCacheBitmap from the position of this Container in pixels
+     */
+    private int mCacheLeft;
+
+    private int mCacheTop;
+
+    private List<DisplayBase> mDisplayList = new ArrayList<>();
+
+    /**
+     * An unmodifiable copy of mDisplayList, returned by {@link #getChildren()}.
+     * Once this Container has been added to a view, it is replaced only when no frame is being drawn.
+     */
+    private volatile List<DisplayBase> mPublishedChildren = Collections.emptyList();
+
+    private boolean mChildrenChanged = false;
 
     /**
      * constructor
@@ -47,132 +96,482 @@ public class Container extends DisplayBase {
         return new DisplayComposer();
     }
 
+    /**
+     * If true, the children are rendered once into an offscreen bitmap, and the bitmap is drawn with the transform and alpha
+     * of this Container every frame. Alpha is applied to the group as a whole, so overlapping children do not show through each other.
+     * The bitmap is rendered again automatically when the display list is changed or any descendant is animating
+     * (neither paused nor finished). Call {@link #invalidateCache()} when the content of a drawer is changed.
+     * default false.
+     *
+     * @param cacheAsBitmap If true, cache the children as a bitmap.
+     * @return this
+     */
+    public Container cacheAsBitmap(boolean cacheAsBitmap) {
+        mCacheAsBitmap = cacheAsBitmap;
+        mContentVersion++;
+        return this;
+    }
+
+    /**
+     * Render the cache bitmap again in the next frame.
+     * Call this when the content of a drawer of a child is changed, for example the text of a TextDrawer.
+     */
+    public void invalidateCache() {
+        mContentVersion++;
+    }
+
+    /**
+     * Draw the children on the canvas transformed by this Container, or the cache bitmap if they are static.
+     * The Container itself is never culled, since its children are culled individually.
+     */
     @Override
-    void draw(Canvas canvas) {
-        super.draw(canvas);
+    void drawContent(@NonNull Canvas canvas, int alpha, boolean culling) {
+        if (mStage != null && mStage.isBoundsRequired()) {
+            // the children concatenate this world matrix
+            updateWorldMatrix();
+        } else {
+            updateLocalMatrix();
+        }
 
         mDrawingList.addAll(mDisplayList);
         mDrawingList.removeAll(Collections.singleton(null));
         Collections.sort(mDrawingList);
-        for (DisplayObject DisplayObject : mDrawingList) {
-            if (DisplayObject == null) {
-                continue;
+
+        if (!mCacheAsBitmap) {
+            mCacheBitmap = null;
+            mCacheValid = false;
+            drawChildren(canvas, alpha);
+        } else if (isChildrenChanged()) {
+            // draw the children directly until they are static
+            mCacheValid = false;
+            drawChildren(canvas, alpha);
+        } else {
+            if (!mCacheValid) {
+                mCacheValid = renderCache();
+            }
+            if (mCacheValid) {
+                drawCache(canvas, alpha);
+            } else {
+                drawChildren(canvas, alpha);
             }
-            DisplayObject.draw(canvas, mAnimParameter);
         }
+
         mDrawingList.clear();
+    }
+
+    private void drawChildren(Canvas canvas, int alpha) {
+        mDrawnContentVersion = mContentVersion;
+
+        int saveCount = canvas.save();
+        canvas.concat(mLocalMatrix);
+        for (DisplayBase displayBase : mDrawingList) {
+            displayBase.draw(canvas, alpha);
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Whether the cache must not be used in this frame, because the display list was changed, a descendant is animating or the cache was invalidated.
+     */
+    private boolean isChildrenChanged() {
+        if (mContentVersion != mDrawnContentVersion) {
+            return true;
+        }
+        for (DisplayBase displayBase : mDrawingList) {
+            if (displayBase.isAnimating()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    boolean isAnimating() {
+        if (super.isAnimating() || mContentVersion != mDrawnContentVersion) {
+            return true;
+        }
+        for (int i = 0; i < mDisplayList.size(); i++) {
+            DisplayBase displayBase = mDisplayList.get(i);
+            if (displayBase != null && displayBase.isAnimating()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Draw the children into the cache bitmap.
+     *
+     * @return false if the cache bitmap can not be used
+     */
+    private boolean renderCache() {
+        unionChildBounds(mCacheBounds);
+
+        int left = (int) Math.floor(mCacheBounds.left);
+        int top = (int) Math.floor(mCacheBounds.top);
+        int width = (int) Math.ceil(mCacheBounds.right) - left;
+        int height = (int) Math.ceil(mCacheBounds.bottom) - top;
+        if (width <= 0 || height <= 0 || (long) width * height * 4 > Constant.CONTAINER_CACHE_MAX_BYTES) {
+            return false;
+        }
+
+        if (mCacheBitmap != null && mCacheBitmap.getWidth() >= width && mCacheBitmap.getHeight() >= height) {
+            mCacheBitmap.eraseColor(Color.TRANSPARENT);
+        } else {
+            try {
+                mCacheBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            } catch (OutOfMemoryError e) {
+                mCacheBitmap = null;
+                return false;
+            }
+        }
+        mCacheLeft = left;
+        mCacheTop = top;
+        mDrawnContentVersion = mContentVersion;
+
+        mCacheCanvas.setBitmap(mCacheBitmap);
+        int saveCount = mCacheCanvas.save();
+        mCacheCanvas.translate(-left, -top);
+        mStage.beginOffscreen();
+        try {
+            for (DisplayBase displayBase : mDrawingList) {
+                displayBase.draw(mCacheCanvas, Constant.DEFAULT_ALPHA);
+            }
+        } finally {
+            mStage.endOffscreen();
+            mCacheCanvas.restoreToCount(saveCount);
+        }
+        return true;
+    }
+
+    private void drawCache(Canvas canvas, int alpha) {
+        if (alpha > 0) {
+            mCacheMatrix.set(mLocalMatrix);
+            mCacheMatrix.preTranslate(mCacheLeft, mCacheTop);
+            mCachePaint.setAlpha(alpha);
+            canvas.drawBitmap(mCacheBitmap, mCacheMatrix, mCachePaint);
+        }
 
+        // keep the children hit-testable
+        for (DisplayBase displayBase : mDrawingList) {
+            displayBase.updateBoundsWithoutDrawing();
+        }
     }
 
     @Override
-    void setUp(long fps) {
-        super.setUp(fps);
-        mFps = fps;
-        for (DisplayObject DisplayObject : mDisplayList) {
-            if (DisplayObject == null) {
+    void updateBoundsWithoutDrawing() {
+        if (mStage == null || !mStage.isBoundsRequired()) {
+            return;
+        }
+        updateWorldMatrix();
+        for (int i = 0; i < mDisplayList.size(); i++) {
+            DisplayBase displayBase = mDisplayList.get(i);
+            if (displayBase != null) {
+                displayBase.updateBoundsWithoutDrawing();
+            }
+        }
+    }
+
+    /**
+     * The bounds of a Container is the union of the bounds of the children, transformed by this Container.
+     */
+    @Override
+    void getLocalBounds(RectF out) {
+        updateLocalMatrix();
+        unionChildBounds(out);
+        mLocalMatrix.mapRect(out);
+    }
+
+    /**
+     * Compute the union of the bounds of the children in the coordinates of this Container.
+     */
+    private void unionChildBounds(RectF out) {
+        out.setEmpty();
+        for (int i = 0; i < mDisplayList.size(); i++) {
+            DisplayBase displayBase = mDisplayList.get(i);
+            if (displayBase == null) {
+                continue;
+            }
+            displayBase.getLocalBounds(mChildBounds);
+            out.union(mChildBounds);
+        }
+    }
+
+    /**
+     * The children are kept and reset too, so a pooled Container is reused with its children.
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        for (DisplayBase displayBase : mDisplayList) {
+            if (displayBase == null) {
+                continue;
+            }
+            displayBase.reset();
+            displayBase.mParent = this;
+        }
+        mCacheValid = false;
+        mContentVersion++;
+    }
+
+    @Override
+    void setUp(Stage stage) {
+        super.setUp(stage);
+        for (DisplayBase displayBase : mDisplayList) {
+            if (displayBase == null) {
                 continue;
             }
-            DisplayObject.setUp(fps);
+            displayBase.setUp(stage);
         }
     }
 
-    private List<DisplayObject> mDisplayList = new ArrayList<>();
+    @Override
+    void disable() {
+        super.disable();
+        for (DisplayBase displayBase : mDisplayList) {
+            if (displayBase == null) {
+                continue;
+            }
+            displayBase.disable();
+        }
+    }
+
+    @Override
+    void setOwnerStage(Stage stage) {
+        if (mOwnerStage == stage) {
+            return;
+        }
+        if (stage != null && mChildrenChanged) {
+            publishChildren();
+        }
+        super.setOwnerStage(stage);
+        // not added to this Stage before, so the display list is not changed by another thread
+        for (DisplayBase displayBase : mDisplayList) {
+            if (displayBase != null) {
+                displayBase.setOwnerStage(stage);
+            }
+        }
+    }
 
     /**
-     * Adds a child to the top of the display list.
+     * Adds a child to the top of the display list. The child can be another Container.
+     * If this Container has been added to FPSTextureView or FPSSurfaceView, the child is added when the frame being drawn has finished.
      *
-     * @param DisplayObject DisplayObject2
+     * @param displayBase DisplayObject or Container
      * @return this
      */
-    public Container addChild(@NonNull DisplayObject DisplayObject) {
-        if (mFps != DEFAULT_FPS) {
-            DisplayObject.setUp(mFps);
-        }
-        mDisplayList.add(DisplayObject);
+    public Container addChild(@NonNull final DisplayBase displayBase) {
+        displayBase.setOwner(this, mOwnerStage);
+        runOnStage(new Runnable() {
+            @Override
+            public void run() {
+                attachChildAt(mDisplayList.size(), displayBase);
+            }
+        });
         return this;
     }
 
     /**
-     * Adds a child to the display list at the specified index, bumping children at equal or greater indexes up one, and setting its parent to this Container
+     * Adds a child to the display list at the specified index, bumping children at equal or greater indexes up one, and setting its parent to this Container.
+     * If this Container has been added to FPSTextureView or FPSSurfaceView, the child is added when the frame being drawn has finished,
+     * and the index is clamped to the display list at that time.
      *
-     * @param location      index
-     * @param DisplayObject DisplayObject
+     * @param location    index
+     * @param displayBase DisplayObject or Container
      * @return this
      */
-    public Container addChildAt(int location, @NonNull DisplayObject DisplayObject) {
-        if (mFps != DEFAULT_FPS) {
-            DisplayObject.setUp(mFps);
-        }
-        mDisplayList.add(location, DisplayObject);
+    public Container addChildAt(final int location, @NonNull final DisplayBase displayBase) {
+        displayBase.setOwner(this, mOwnerStage);
+        runOnStage(new Runnable() {
+            @Override
+            public void run() {
+                attachChildAt(location, displayBase);
+            }
+        });
         return this;
     }
 
     /**
      * Removes the specified child from the display list.
+     * If this Container has been added to FPSTextureView or FPSSurfaceView, the child is removed when the frame being drawn has finished.
      *
-     * @param displayObject DisplayObject
+     * @param displayBase DisplayObject or Container
      * @return this
      */
-    public Container removeChild(@NonNull DisplayObject displayObject) {
-        displayObject.disable();
-        mDisplayList.remove(displayObject);
+    public Container removeChild(@NonNull final DisplayBase displayBase) {
+        displayBase.clearOwner(this);
+        runOnStage(new Runnable() {
+            @Override
+            public void run() {
+                removeChildNow(displayBase);
+            }
+        });
         return this;
     }
 
     /**
      * Removes the child at the specified index from the display list.
+     * If this Container has been added to FPSTextureView or FPSSurfaceView, the child is removed when the frame being drawn has finished.
      *
      * @param location index
      * @return this
      */
-    public Container removeChildAt(int location) {
-        DisplayBase removed = mDisplayList.remove(location);
-        if (removed != null) {
-            removed.disable();
-        }
+    public Container removeChildAt(final int location) {
+        runOnStage(new Runnable() {
+            @Override
+            public void run() {
+                if (location < 0 || location >= mDisplayList.size()) {
+                    return;
+                }
+                DisplayBase removed = detachChildAt(location);
+                if (removed != null) {
+                    removed.clearOwner(Container.this);
+                    removed.recycle();
+                }
+            }
+        });
         return this;
     }
 
     /**
      * Removes all children from the display list.
+     * If this Container has been added to FPSTextureView or FPSSurfaceView, they are removed when the frame being drawn has finished.
      *
      * @return this
      */
     public Container removeAllChildren() {
-        mDisplayList.clear();
+        runOnStage(new Runnable() {
+            @Override
+            public void run() {
+                List<DisplayBase> removed = new ArrayList<>(mDisplayList);
+                mDisplayList.clear();
+                childrenChanged();
+                for (DisplayBase displayBase : removed) {
+                    if (displayBase != null) {
+                        displayBase.disable();
+                        displayBase.clearOwner(Container.this);
+                        displayBase.recycle();
+                    }
+                }
+            }
+        });
         return this;
     }
 
     /**
      * Swaps the specified children's depth in the display list. If either child is not a child of this Container, return false.
+     * If this Container has been added to FPSTextureView or FPSSurfaceView, they are swapped when the frame being drawn has finished.
      *
-     * @param child1 DisplayObject
-     * @param child2 DisplayObject
+     * @param child1 DisplayObject or Container
+     * @param child2 DisplayObject or Container
      * @return if true, success to swapChildren
      */
-    public boolean swapChildren(@NonNull DisplayObject child1, @NonNull DisplayObject child2) {
+    public boolean swapChildren(@NonNull final DisplayBase child1, @NonNull final DisplayBase child2) {
+        if (!child1.isOwnedBy(this) || !child2.isOwnedBy(this)) {
+            return false;
+        }
         child1.swapPriority(child2);
-        int childIndex1 = mDisplayList.indexOf(child1);
-        int childIndex2 = mDisplayList.indexOf(child2);
+        runOnStage(new Runnable() {
+            @Override
+            public void run() {
+                int childIndex1 = mDisplayList.indexOf(child1);
+                int childIndex2 = mDisplayList.indexOf(child2);
+                if (childIndex1 != -1 && childIndex2 != -1) {
+                    Collections.swap(mDisplayList, childIndex1, childIndex2);
+                    childrenChanged();
+                }
+            }
+        });
+        return true;
+    }
 
-        if (childIndex1 == -1 || childIndex2 == -1) {
-            return false;
+    /**
+     * Add the child now. Once this Container has been added to a view, this is called only while no other thread changes the display lists.
+     */
+    private void attachChildAt(int location, DisplayBase displayBase) {
+        displayBase.mParent = this;
+        if (mStage != null) {
+            displayBase.setUp(mStage);
         }
+        mDisplayList.add(Math.max(0, Math.min(location, mDisplayList.size())), displayBase);
+        childrenChanged();
+    }
 
-        removeChildAt(childIndex1);
-        addChildAt(childIndex1, child2);
-        removeChildAt(childIndex2);
-        addChildAt(childIndex2, child1);
-        return true;
+    /**
+     * Remove the child now, and return it to its pool. Once this Container has been added to a view, this is called only while no other thread changes the display lists.
+     */
+    void removeChildNow(DisplayBase displayBase) {
+        int location = mDisplayList.indexOf(displayBase);
+        if (location != -1) {
+            detachChildAt(location);
+            displayBase.recycle();
+        }
+    }
+
+    /**
+     * Remove the child without returning it to its pool, so it can be added again.
+     */
+    private DisplayBase detachChildAt(int location) {
+        DisplayBase removed = mDisplayList.remove(location);
+        if (removed != null) {
+            removed.disable();
+        }
+        childrenChanged();
+        return removed;
+    }
+
+    private void childrenChanged() {
+        mContentVersion++;
+        if (mChildrenChanged) {
+            return;
+        }
+        mChildrenChanged = true;
+        Stage stage = mOwnerStage;
+        if (stage != null) {
+            stage.publishLater(this);
+        }
+    }
+
+    /**
+     * Replace the copy returned by {@link #getChildren()}. This is called only while no other thread changes the display list.
+     */
+    void publishChildren() {
+        mChildrenChanged = false;
+        mPublishedChildren = Collections.unmodifiableList(new ArrayList<>(mDisplayList));
     }
 
     /**
-     * Getter DisplayList
+     * Getter DisplayList. Since a Container can hold Containers, the nested Containers are not included.
      *
-     * @return DisplayList
+     * @return a copy of the DisplayObjects in the display list
+     * @deprecated use {@link #getChildren()}, which includes the nested Containers.
      */
+    @Deprecated
     public List<DisplayObject> getDisplayList() {
-        return mDisplayList;
+        List<DisplayBase> children = getChildren();
+        List<DisplayObject> displayObjects = new ArrayList<>(children.size());
+        for (DisplayBase displayBase : children) {
+            if (displayBase instanceof DisplayObject) {
+                displayObjects.add((DisplayObject) displayBase);
+            }
+        }
+        return displayObjects;
+    }
+
+    /**
+     * Getter the children, including the nested Containers. Once this Container has been added to FPSTextureView or FPSSurfaceView,
+     * they are the children when the last frame finished while a frame is being drawn.
+     *
+     * @return unmodifiable copy of the children
+     */
+    public List<DisplayBase> getChildren() {
+        Stage stage = mOwnerStage;
+        if (stage != null) {
+            stage.refreshDisplayLists();
+        } else if (mChildrenChanged) {
+            publishChildren();
+        }
+        return mPublishedChildren;
     }
 
 
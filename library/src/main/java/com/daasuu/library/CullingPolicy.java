@@ -0,0 +1,24 @@
+package com.daasuu.library;
+
+/**
+ * Policy applied to a display object whose bounds are completely outside the canvas,
+ * when culling is enabled in FPSTextureView or FPSSurfaceView.
+ */
+public enum CullingPolicy {
+
+    /**
+     * Never culled. Use this for objects which draw outside of the width and height of their drawer.
+     */
+    NONE,
+
+    /**
+     * Drawing is skipped, but the animator keeps updating so the object can move back into the canvas.
+     */
+    KEEP_UPDATING,
+
+    /**
+     * Both drawing and updating the animator are skipped until the object is back in the canvas.
+     * The object can come back only when its parent moves.
+     */
+    FREEZE
+}
@@ -1,10 +1,17 @@
 package com.daasuu.library;
 
 import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.RectF;
 import android.support.annotation.NonNull;
 
+import com.daasuu.library.animator.BaseAnimator;
 import com.daasuu.library.animator.ParabolicAnimator;
 import com.daasuu.library.animator.TweenAnimator;
+import com.daasuu.library.callback.AnimUpdateListener;
+import com.daasuu.library.constant.Constant;
+import com.daasuu.library.drawer.BaseDrawer;
+import com.daasuu.library.util.Util;
 
 /**
  * Basic Class of Object to Add to FPSTextureView or FPSSurfaceView.
@@ -20,9 +27,146 @@ public abstract class DisplayBase implements Comparable<DisplayBase> {
 
     protected Drawer mDrawer;
 
-    private boolean mIsEnable;
+    /**
+     * mAnimator itself, or mAnimator wrapped to give it the defaults of BaseAnimator.
+     */
+    private BaseAnimator mBaseAnimator;
+
+    /**
+     * mDrawer itself, or mDrawer wrapped to give it the cached bounds and the transform of BaseDrawer.
+     */
+    private BaseDrawer mBaseDrawer;
+
+    /**
+     * Written by the thread which adds and removes this display object, read by the drawing thread.
+     */
+    private volatile boolean mIsEnable;
+
+    private volatile int mPriority;
 
-    private int mPriority;
+    /**
+     * The priority given to the constructor, restored by {@link #reset()}.
+     */
+    private final int mInitialPriority;
+
+    /**
+     * The values of the animation parameter when the animator was set, restored by {@link #reset()}.
+     */
+    private final AnimParameter mResetParameter = new AnimParameter(0, 0);
+
+    /**
+     * The pool which this display object is returned to when it is removed, or null.
+     */
+    DisplayObjectPool<?> mPool;
+
+    /**
+     * If true, this display object is in mPool.
+     */
+    boolean mInPool = false;
+
+    /**
+     * Returns this display object to mPool at the beginning of a frame, created once.
+     */
+    private Runnable mRecycleCommand;
+
+    /**
+     * The size of the canvas when setBaseLine was called last.
+     */
+    private int mBaseLineCanvasWidth = -1;
+
+    private int mBaseLineCanvasHeight = -1;
+
+    /**
+     * The Stage which this display object is added to.
+     */
+    Stage mStage;
+
+    /**
+     * The Stage or the Container which this display object has been added to, or null if it has been removed.
+     * It is written by the thread which changes the display lists, before the change is applied.
+     */
+    private volatile Object mOwner;
+
+    /**
+     * The Stage which the changes of the display lists under this display object are posted to, once it has been added to a view.
+     */
+    volatile Stage mOwnerStage;
+
+    private CullingPolicy mCullingPolicy = CullingPolicy.KEEP_UPDATING;
+
+    private CompletionPolicy mCompletionPolicy = CompletionPolicy.KEEP;
+
+    /**
+     * If true, this display object has been hidden by {@link CompletionPolicy#HIDE}.
+     */
+    private boolean mHidden = false;
+
+    /**
+     * The speed of the animator and the drawer relative to the parent, as a percentage of 1.
+     */
+    private volatile float mTimeScale = 1f;
+
+    /**
+     * mTimeScale multiplied by the time scales of the parents and the stage, updated every frame before the children are drawn.
+     */
+    float mWorldTimeScale = 1f;
+
+    private static final UpdateListenerEntry[] NO_UPDATE_LISTENERS = new UpdateListenerEntry[0];
+
+    /**
+     * Replaced by a new array when a listener is added or removed, so the drawing thread iterates it without a lock.
+     */
+    private volatile UpdateListenerEntry[] mUpdateListeners = NO_UPDATE_LISTENERS;
+
+    /**
+     * If true, this display object was outside the canvas in the last frame.
+     */
+    private boolean mCulled = false;
+
+    /**
+     * Conservative bounds on the canvas in the last frame.
+     */
+    final RectF mBounds = new RectF();
+
+    /**
+     * The Container which this display object is added to, or null if it is added to FPSTextureView or FPSSurfaceView.
+     */
+    DisplayBase mParent;
+
+    /**
+     * The transform of the drawer relative to the parent with the current animation parameter.
+     */
+    final Matrix mLocalMatrix = new Matrix();
+
+    /**
+     * mLocalMatrix which mWorldMatrix was computed from.
+     */
+    private final Matrix mWorldLocalMatrix = new Matrix();
+
+    /**
+     * The transform of the drawer on the canvas. It is computed only when the local transform or the parent has changed.
+     */
+    final Matrix mWorldMatrix = new Matrix();
+
+    /**
+     * Incremented every time mWorldMatrix is changed, so the children can tell whether their world matrices are stale.
+     */
+    int mWorldVersion = 0;
+
+    /**
+     * mWorldVersion of the parent which mWorldMatrix was computed from, or -1 if mWorldMatrix is not computed.
+     */
+    private int mParentWorldVersion = -1;
+
+    /**
+     * The range of cells of the spatial index which this display object covers.
+     */
+    SpatialGrid.Entry mGridEntry;
+
+    /**
+     * The order in which this display object was drawn last. Larger is on top.
+     */
+    long mDrawOrder = 0;
 
     protected DisplayBase() {
         this(0);
@@ -30,18 +174,74 @@ public abstract class DisplayBase implements Comparable<DisplayBase> {
 
     protected DisplayBase(int priority) {
         mPriority = priority;
+        mInitialPriority = priority;
+    }
+
+    /**
+     * Record the Stage or the Container which this display object is added to.
+     * This is called from the thread which changes the display list, before the change is posted to the Stage.
+     *
+     * @param owner The Stage or the Container
+     * @param stage The Stage which the owner has been added to, or null
+     */
+    void setOwner(Object owner, Stage stage) {
+        mOwner = owner;
+        if (stage != null) {
+            setOwnerStage(stage);
+        }
+    }
+
+    /**
+     * Forget the owner, unless this display object has been added to another one since.
+     *
+     * @param owner The Stage or the Container which this display object is removed from
+     */
+    void clearOwner(Object owner) {
+        if (mOwner == owner) {
+            mOwner = null;
+        }
+    }
+
+    /**
+     * Whether this display object has been added to the owner, including the changes not applied yet.
+     *
+     * @param owner The Stage or the Container
+     * @return true if added
+     */
+    boolean isOwnedBy(Object owner) {
+        return mOwner == owner;
+    }
+
+    void setOwnerStage(Stage stage) {
+        mOwnerStage = stage;
     }
 
     /**
-     * call from FPSTextureView or FPSSurfaceView when it is addChild.
+     * Run the command now if this display object has not been added to a view or no frame is being drawn,
+     * otherwise when the frame has finished, so the display lists under a view never change while they are drawn.
      *
-     * @param fps Set in FPSTextureView or FPSSurfaceView.
+     * @param command command
      */
-    void setUp(long fps) {
-        synchronized (this) {
-            mIsEnable = true;
+    void runOnStage(@NonNull Runnable command) {
+        Stage stage = mOwnerStage;
+        if (stage == null) {
+            command.run();
+        } else {
+            stage.post(command);
         }
-        mAnimator.setUp(fps);
+    }
+
+    /**
+     * call from FPSTextureView or FPSSurfaceView when it is addChild. This is called only while no frame is being drawn,
+     * since the animator may bake its animation parameters again.
+     *
+     * @param stage The Stage of FPSTextureView or FPSSurfaceView.
+     */
+    void setUp(Stage stage) {
+        mIsEnable = true;
+        mStage = stage;
+        mParentWorldVersion = -1;
+        mAnimator.setUp(stage.getFps());
     }
 
     /**
@@ -53,6 +253,7 @@ public abstract class DisplayBase implements Comparable<DisplayBase> {
      */
     protected DisplayComposer drawer(@NonNull Drawer drawer) {
         mDrawer = drawer;
+        mBaseDrawer = drawer instanceof BaseDrawer ? (BaseDrawer) drawer : new DrawerAdapter(drawer);
         return new DisplayComposer();
     }
 
@@ -65,10 +266,110 @@ public abstract class DisplayBase implements Comparable<DisplayBase> {
      */
     public DisplayBase animator(@NonNull Animator animator) {
         this.mAnimator = animator;
+        mBaseAnimator = animator instanceof BaseAnimator ? (BaseAnimator) animator : new AnimatorAdapter(animator);
         mAnimParameter = mAnimator.getInitialAnimParameter();
+        mResetParameter.set(mAnimParameter);
+        mBaseLineCanvasWidth = -1;
+        return this;
+    }
+
+    /**
+     * Set the policy applied when this display object is completely outside the canvas.
+     * This is effective only when culling is enabled in FPSTextureView or FPSSurfaceView.
+     * default {@link CullingPolicy#KEEP_UPDATING}.
+     *
+     * @param cullingPolicy policy
+     * @return this
+     */
+    public DisplayBase cullingPolicy(@NonNull CullingPolicy cullingPolicy) {
+        mCullingPolicy = cullingPolicy;
+        return this;
+    }
+
+    /**
+     * Set the policy applied when the animator has finished.
+     * default {@link CompletionPolicy#KEEP}.
+     *
+     * @param completionPolicy policy
+     * @return this
+     */
+    public DisplayBase completionPolicy(@NonNull CompletionPolicy completionPolicy) {
+        mCompletionPolicy = completionPolicy;
+        return this;
+    }
+
+    CompletionPolicy getCompletionPolicy() {
+        return mCompletionPolicy;
+    }
+
+    /**
+     * Set the speed of the animator and the drawer, for example 0.25 for slow motion. It is multiplied by the time scale
+     * of the Container and FPSTextureView or FPSSurfaceView, so the children of a Container follow it too.
+     * default 1.
+     *
+     * @param timeScale The speed, as a percentage of 1
+     * @return this
+     */
+    public DisplayBase timeScale(float timeScale) {
+        mTimeScale = Math.max(0f, timeScale);
+        return this;
+    }
+
+    public float getTimeScale() {
+        return mTimeScale;
+    }
+
+    /**
+     * see {@link #addUpdateListener(AnimUpdateListener, CallbackDispatchMode)}
+     *
+     * @param listener listener called on the drawing thread
+     * @return this
+     */
+    public DisplayBase addUpdateListener(@NonNull AnimUpdateListener listener) {
+        return addUpdateListener(listener, CallbackDispatchMode.INLINE);
+    }
+
+    /**
+     * Add a listener called with the animation parameter every frame after the animator has updated it.
+     * With {@link CallbackDispatchMode#DEFERRED}, the listeners of all display objects are called in one batch
+     * after the frame is posted, on the UI thread or the executor set to FPSTextureView or FPSSurfaceView,
+     * with the values of the latest frame.
+     *
+     * @param listener listener
+     * @param mode     INLINE to call it on the drawing thread, or DEFERRED
+     * @return this
+     */
+    public synchronized DisplayBase addUpdateListener(@NonNull AnimUpdateListener listener, @NonNull CallbackDispatchMode mode) {
+        UpdateListenerEntry[] listeners = mUpdateListeners;
+        UpdateListenerEntry[] newListeners = new UpdateListenerEntry[listeners.length + 1];
+        System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+        newListeners[listeners.length] = new UpdateListenerEntry(listener, mode);
+        mUpdateListeners = newListeners;
         return this;
     }
 
+    /**
+     * Remove the listener. A deferred call already queued may still be made.
+     *
+     * @param listener listener
+     */
+    public synchronized void removeUpdateListener(@NonNull AnimUpdateListener listener) {
+        UpdateListenerEntry[] listeners = mUpdateListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].mListener != listener) {
+                continue;
+            }
+            if (listeners.length == 1) {
+                mUpdateListeners = NO_UPDATE_LISTENERS;
+                return;
+            }
+            UpdateListenerEntry[] newListeners = new UpdateListenerEntry[listeners.length - 1];
+            System.arraycopy(listeners, 0, newListeners, 0, i);
+            System.arraycopy(listeners, i + 1, newListeners, i, newListeners.length - i);
+            mUpdateListeners = newListeners;
+            return;
+        }
+    }
 
     /**
      * Draws the display object into the specified context ignoring its visible, alpha, shadow, and transform.
@@ -76,12 +377,228 @@ public abstract class DisplayBase implements Comparable<DisplayBase> {
      * @param canvas This Canvas acquired by lookCanvas in FPSTextureView or FPSSurfaceView.
      */
     void draw(@NonNull Canvas canvas) {
-        synchronized (this) {
-            if (mIsEnable) {
-                mAnimator.setBaseLine(canvas, mDrawer.getWidth(), mDrawer.getHeight());
-                mAnimator.updateAnimParam(mAnimParameter);
-                mDrawer.draw(canvas, mAnimParameter.x, mAnimParameter.y, mAnimParameter.alpha, mAnimParameter.scaleX, mAnimParameter.scaleY, mAnimParameter.rotation);
+        if (mIsEnable) {
+            draw(canvas, Constant.DEFAULT_ALPHA);
+        }
+    }
+
+    /**
+     * Update the animation parameter, and draw. The canvas is already transformed by the parent.
+     *
+     * @param canvas      This Canvas acquired by lookCanvas in FPSTextureView or FPSSurfaceView.
+     * @param parentAlpha The alpha of the parent ,as a percentage of 255.
+     */
+    void draw(@NonNull Canvas canvas, int parentAlpha) {
+        if (mHidden) {
+            return;
+        }
+
+        boolean culling = mStage != null && mStage.isCullingEnabled() && mCullingPolicy != CullingPolicy.NONE;
+        if (culling && mCulled && mCullingPolicy == CullingPolicy.FREEZE) {
+            // the animation parameter is frozen, but the parent may have moved this display object onto the canvas
+            if (mParent != null && mParent.mWorldVersion != mParentWorldVersion) {
+                updateBounds();
             }
+            if (!mStage.isVisible(mBounds)) {
+                return;
+            }
+        }
+
+        if (mStage == null || !mStage.isOffscreen()) {
+            updateBaseLine(canvas);
+        }
+        updateTimeScale();
+        mBaseAnimator.updateAnimParam(mAnimParameter);
+        if (mCompletionPolicy != CompletionPolicy.KEEP && mStage != null && mBaseAnimator.isFinished()) {
+            mStage.complete(this);
+        }
+        dispatchUpdate();
+        // before culling, so the drawer keeps playing outside the canvas
+        mBaseDrawer.update();
+
+        drawContent(
+                canvas,
+                parentAlpha == Constant.DEFAULT_ALPHA ? mAnimParameter.alpha : (int) (mAnimParameter.alpha * Util.convertAlphaIntToFloat(parentAlpha)),
+                culling);
+    }
+
+    /**
+     * Pass the animation parameter of this frame to the update listeners.
+     */
+    private void dispatchUpdate() {
+        UpdateListenerEntry[] listeners = mUpdateListeners;
+        if (listeners.length == 0) {
+            return;
+        }
+        float progress = mBaseAnimator.getProgress();
+        for (UpdateListenerEntry listener : listeners) {
+            listener.update(mAnimParameter, progress, mStage);
+        }
+    }
+
+    /**
+     * Multiply the time scale by the one of the parent, and pass it to the animator and the drawer.
+     */
+    private void updateTimeScale() {
+        float parentTimeScale = mParent != null ? mParent.mWorldTimeScale : mStage != null ? mStage.getTimeScale() : 1f;
+        mWorldTimeScale = mTimeScale * parentTimeScale;
+        mBaseAnimator.setTimeScale(mWorldTimeScale);
+        mBaseDrawer.setTimeScale(mWorldTimeScale);
+    }
+
+    /**
+     * Draw the drawer with the current animation parameter, unless it is outside the canvas.
+     *
+     * @param canvas  This Canvas acquired by lookCanvas in FPSTextureView or FPSSurfaceView.
+     * @param alpha   The alpha (transparency) concatenated with the parent ,as a percentage of 255.
+     * @param culling If true, skip drawing when it is outside the canvas.
+     */
+    void drawContent(@NonNull Canvas canvas, int alpha, boolean culling) {
+        if (mStage != null && mStage.isBoundsRequired()) {
+            updateBounds();
+            if (culling) {
+                mCulled = !mStage.isVisible(mBounds);
+                if (mCulled) {
+                    return;
+                }
+            }
+            mDrawOrder = mStage.nextDrawOrder();
+        }
+
+        mBaseDrawer.draw(canvas, mAnimParameter.x, mAnimParameter.y, alpha, mAnimParameter.scaleX, mAnimParameter.scaleY, mAnimParameter.rotation);
+    }
+
+    /**
+     * Compute conservative bounds on the canvas from the world matrix, and move this display object in the spatial index
+     * if hit-testing is enabled.
+     */
+    private void updateBounds() {
+        updateWorldMatrix();
+        mapDrawerBounds(mWorldMatrix, mBounds);
+
+        if (mStage.isSpatialGridEnabled()) {
+            mStage.getSpatialGrid().update(this, mBounds);
+        }
+    }
+
+    /**
+     * Update the bounds and the draw order without drawing.
+     * This is called for the children of a Container which draws its cache bitmap instead of them.
+     */
+    void updateBoundsWithoutDrawing() {
+        if (mStage == null || !mStage.isBoundsRequired()) {
+            return;
+        }
+        updateBounds();
+        mDrawOrder = mStage.nextDrawOrder();
+    }
+
+    /**
+     * Set the transform of the drawer relative to the parent with the current animation parameter to mLocalMatrix.
+     */
+    void updateLocalMatrix() {
+        mBaseDrawer.getTransform(mLocalMatrix, mAnimParameter.x, mAnimParameter.y, mAnimParameter.scaleX, mAnimParameter.scaleY, mAnimParameter.rotation);
+    }
+
+    /**
+     * Update mWorldMatrix only when the local transform or the world matrix of the parent has changed.
+     * The world matrix of the parent must be updated before.
+     */
+    void updateWorldMatrix() {
+        updateLocalMatrix();
+
+        int parentWorldVersion = mParent == null ? 0 : mParent.mWorldVersion;
+        if (parentWorldVersion == mParentWorldVersion && mLocalMatrix.equals(mWorldLocalMatrix)) {
+            return;
+        }
+
+        mParentWorldVersion = parentWorldVersion;
+        mWorldLocalMatrix.set(mLocalMatrix);
+        if (mParent == null) {
+            mWorldMatrix.set(mLocalMatrix);
+        } else {
+            mWorldMatrix.setConcat(mParent.mWorldMatrix, mLocalMatrix);
+        }
+        mWorldVersion++;
+    }
+
+    /**
+     * Compute conservative bounds relative to the parent with the current animation parameter.
+     *
+     * @param out the bounds to be set
+     */
+    void getLocalBounds(RectF out) {
+        updateLocalMatrix();
+        mapDrawerBounds(mLocalMatrix, out);
+    }
+
+    /**
+     * Map the rectangle of the drawer by the transform.
+     * The rectangle is enlarged by {@link Constant#CULLING_MARGIN_RATE}, since some drawers draw a little outside of their width and height.
+     */
+    private void mapDrawerBounds(Matrix matrix, RectF out) {
+        float width = mBaseDrawer.getCachedWidth();
+        float height = mBaseDrawer.getCachedHeight();
+        float marginX = width * Constant.CULLING_MARGIN_RATE + 1;
+        float marginY = height * Constant.CULLING_MARGIN_RATE + 1;
+
+        out.set(-marginX, -marginY, width + marginX, height + marginY);
+        matrix.mapRect(out);
+    }
+
+    /**
+     * Whether this display object may be drawn differently in the next frame, or must be updated every frame.
+     *
+     * @return true if not hidden, and the animator is neither paused nor finished, the drawer is animating
+     * or an update listener is added
+     */
+    boolean isAnimating() {
+        if (mHidden) {
+            return false;
+        }
+        return (!mAnimator.isPause() && !mBaseAnimator.isFinished())
+                || mBaseDrawer.isAnimating()
+                || mUpdateListeners.length > 0;
+    }
+
+    /**
+     * Whether the point is inside the drawer as it was drawn last, including the transforms of the parents.
+     *
+     * @param x       The horizontal position on the canvas in pixels
+     * @param y       The vertical position on the canvas in pixels
+     * @param inverse work matrix
+     * @param point   work array of length 2
+     * @return true if the point is inside
+     */
+    boolean hitTest(float x, float y, Matrix inverse, float[] point) {
+        if (!mWorldMatrix.invert(inverse)) {
+            return false;
+        }
+        point[0] = x;
+        point[1] = y;
+        inverse.mapPoints(point);
+        return point[0] >= 0 && point[0] <= mBaseDrawer.getCachedWidth()
+                && point[1] >= 0 && point[1] <= mBaseDrawer.getCachedHeight();
+    }
+
+    /**
+     * Call setBaseLine of the animator only when the animator requires it every frame,
+     * or the size of the drawer or the canvas has changed.
+     *
+     * @param canvas This Canvas acquired by lookCanvas in FPSTextureView or FPSSurfaceView.
+     */
+    void updateBaseLine(@NonNull Canvas canvas) {
+        boolean boundsChanged = mBaseDrawer.updateBounds();
+        int canvasWidth = canvas.getWidth();
+        int canvasHeight = canvas.getHeight();
+
+        if (boundsChanged
+                || canvasWidth != mBaseLineCanvasWidth
+                || canvasHeight != mBaseLineCanvasHeight
+                || mBaseAnimator.isBaseLineRequiredEveryFrame()) {
+            mBaseLineCanvasWidth = canvasWidth;
+            mBaseLineCanvasHeight = canvasHeight;
+            mBaseAnimator.setBaseLine(canvas, mBaseDrawer.getCachedWidth(), mBaseDrawer.getCachedHeight());
         }
     }
 
@@ -117,19 +634,101 @@ public abstract class DisplayBase implements Comparable<DisplayBase> {
      * This call from FPSTextureView, FPSSurfaceView or Container when it is removeChild.
      */
     void disable() {
-        synchronized (this) {
-            mIsEnable = false;
+        mIsEnable = false;
+        mCulled = false;
+        if (mStage != null) {
+            mStage.getSpatialGrid().remove(this);
+        }
+    }
+
+    /**
+     * Stop updating and drawing this display object, and remove it from the spatial index.
+     * This call from the Stage for {@link CompletionPolicy#HIDE}.
+     */
+    void hide() {
+        mHidden = true;
+        mCulled = false;
+        if (mStage != null) {
+            mStage.getSpatialGrid().remove(this);
+        }
+    }
+
+    /**
+     * Return this display object to its pool, if it was obtained from {@link DisplayObjectPool}.
+     * This call from FPSTextureView, FPSSurfaceView or Container when it is removeChild.
+     * If a frame is being drawn, it is returned when the frame has finished,
+     * since the drawing thread may still be drawing it.
+     */
+    void recycle() {
+        final DisplayObjectPool<?> pool = mPool;
+        if (pool == null) {
+            return;
+        }
+        if (mStage == null) {
+            pool.recycleRemoved(this);
+            return;
+        }
+        if (mRecycleCommand == null) {
+            mRecycleCommand = new Runnable() {
+                @Override
+                public void run() {
+                    // skip if added again in the meantime
+                    if (!mIsEnable) {
+                        pool.recycleRemoved(DisplayBase.this);
+                    }
+                }
+            };
+        }
+        mStage.post(mRecycleCommand);
+    }
+
+    /**
+     * Restore this display object to the state when the animator was set, so it can be added again.
+     * The animation parameter, the priority and the pause are restored, and the animator and the drawer are rewound.
+     * The drawer, the animator and its baked tween are kept.
+     * Call this only after this display object has been removed.
+     */
+    public void reset() {
+        mIsEnable = false;
+        mStage = null;
+        mOwner = null;
+        mOwnerStage = null;
+        mParent = null;
+        mPriority = mInitialPriority;
+        mHidden = false;
+        mCulled = false;
+        mBounds.setEmpty();
+        mParentWorldVersion = -1;
+        mDrawOrder = 0;
+        mBaseLineCanvasWidth = -1;
+        mBaseLineCanvasHeight = -1;
+        if (mBaseAnimator != null) {
+            mAnimParameter.set(mResetParameter);
+            mBaseAnimator.reset();
+        }
+        if (mBaseDrawer != null) {
+            mBaseDrawer.reset();
         }
     }
 
-    synchronized void swapPriority(DisplayBase another) {
-        if (another != null) {
-            synchronized (another) {
-                int myPriority = this.mPriority;
-                this.mPriority = another.mPriority;
+    /**
+     * Swap the priorities. If a frame is being drawn, they are swapped when it has finished,
+     * so the display list is never sorted while the priorities are changing.
+     *
+     * @param another display object to swap with
+     */
+    void swapPriority(final DisplayBase another) {
+        if (another == null) {
+            return;
+        }
+        runOnStage(new Runnable() {
+            @Override
+            public void run() {
+                int myPriority = mPriority;
+                mPriority = another.mPriority;
                 another.mPriority = myPriority;
             }
-        }
+        });
     }
 
     @Override
@@ -1,10 +1,5 @@
 package com.daasuu.library;
 
-import android.graphics.Canvas;
-import android.support.annotation.NonNull;
-
-import com.daasuu.library.util.Util;
-
 /**
  * DisplayObject class.
  * When you only use default animation and drawing class which is provided by this library,
@@ -25,27 +20,4 @@ public class DisplayObject extends DisplayBase {
         return drawer(drawer);
     }
 
-    /**
-     * Call from {@link Container} class.
-     * Affected by the parameter of Container.
-     *
-     * @param canvas        This Canvas acquired by lookCanvas in FPSTextureView or FPSSurfaceView.
-     * @param animParameter AnimParameter instance
-     */
-    void draw(@NonNull Canvas canvas, @NonNull AnimParameter animParameter) {
-        mAnimator.setBaseLine(canvas, mDrawer.getWidth(), mDrawer.getHeight());
-        mAnimator.updateAnimParam(mAnimParameter);
-
-        mDrawer.draw(
-                canvas,
-                mAnimParameter.x + animParameter.x,
-                mAnimParameter.y + animParameter.y,
-                (int) (mAnimParameter.alpha * Util.convertAlphaIntToFloat(animParameter.alpha)),
-                mAnimParameter.scaleX * animParameter.scaleX,
-                mAnimParameter.scaleY * animParameter.scaleY,
-                mAnimParameter.rotation + animParameter.rotation);
-    }
-
-
 }
-
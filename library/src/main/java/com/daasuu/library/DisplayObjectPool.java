@@ -0,0 +1,113 @@
+package com.daasuu.library;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Pool of display objects, for effects which add and remove many short-lived objects every second.
+ * A display object obtained from the pool is returned to it when it is removed from FPSTextureView, FPSSurfaceView or a Container,
+ * after {@link DisplayBase#reset()} has restored it. The drawer, the animator and its baked tween are reused,
+ * so the allocation stays flat however many objects are spawned.
+ *
+ * @param <T> DisplayObject or Container
+ */
+public class DisplayObjectPool<T extends DisplayBase> {
+
+    /**
+     * Creates a display object with its drawer and animator when the pool is empty.
+     *
+     * @param <T> DisplayObject or Container
+     */
+    public interface Factory<T extends DisplayBase> {
+        @NonNull
+        T create();
+    }
+
+    private final Factory<T> mFactory;
+
+    private final DisplayBase[] mPooled;
+
+    private int mSize = 0;
+
+    /**
+     * Constructor
+     *
+     * @param maxSize The maximum number of display objects kept in the pool. The rest are left to the garbage collector.
+     * @param factory Creates a display object when the pool is empty.
+     */
+    public DisplayObjectPool(int maxSize, @NonNull Factory<T> factory) {
+        mFactory = factory;
+        mPooled = new DisplayBase[maxSize];
+    }
+
+    /**
+     * Return a display object from the pool, or a new one created by the factory if the pool is empty.
+     *
+     * @return display object which is returned to this pool when it is removed
+     */
+    @SuppressWarnings("unchecked")
+    @NonNull
+    public T obtain() {
+        synchronized (this) {
+            if (mSize > 0) {
+                T displayBase = (T) mPooled[--mSize];
+                mPooled[mSize] = null;
+                displayBase.mInPool = false;
+                return displayBase;
+            }
+        }
+        T displayBase = mFactory.create();
+        displayBase.mPool = this;
+        return displayBase;
+    }
+
+    /**
+     * Reset the display object and return it to the pool. This is done on removeChild,
+     * so call this only for a display object which is not added to any view or Container.
+     *
+     * @param displayBase display object obtained from this pool
+     */
+    public void recycle(@NonNull T displayBase) {
+        if (displayBase.mPool != this) {
+            return;
+        }
+        synchronized (this) {
+            if (displayBase.mInPool) {
+                return;
+            }
+            displayBase.mInPool = true;
+        }
+        displayBase.reset();
+        synchronized (this) {
+            if (mSize < mPooled.length) {
+                mPooled[mSize++] = displayBase;
+            } else {
+                displayBase.mInPool = false;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void recycleRemoved(DisplayBase displayBase) {
+        recycle((T) displayBase);
+    }
+
+    /**
+     * Getter the number of display objects in the pool.
+     *
+     * @return size
+     */
+    public synchronized int size() {
+        return mSize;
+    }
+
+    /**
+     * Remove all display objects from the pool.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < mSize; i++) {
+            mPooled[i].mInPool = false;
+            mPooled[i] = null;
+        }
+        mSize = 0;
+    }
+}
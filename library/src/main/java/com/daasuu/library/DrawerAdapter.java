@@ -0,0 +1,50 @@
+package com.daasuu.library;
+
+import android.graphics.Canvas;
+
+import com.daasuu.library.drawer.BaseDrawer;
+
+/**
+ * Gives a {@link Drawer} which does not extend {@link BaseDrawer} the bounds and the transform of BaseDrawer.
+ * The transform assumes that the drawer scales and rotates around the drawing position.
+ */
+class DrawerAdapter extends BaseDrawer {
+
+    private final Drawer mDrawer;
+
+    DrawerAdapter(Drawer drawer) {
+        super(null);
+        mDrawer = drawer;
+    }
+
+    @Override
+    public void draw(Canvas canvas, float x, float y, int alpha, float scaleX, float scaleY, float rotation) {
+        mDrawer.draw(canvas, x, y, alpha, scaleX, scaleY, rotation);
+    }
+
+    @Override
+    protected void draw(Canvas canvas, float x, float y, int alpha) {
+        mDrawer.draw(canvas, x, y, alpha, 1f, 1f, 0f);
+    }
+
+    /**
+     * A Drawer has no way to invalidate its bounds, so it is measured every frame.
+     *
+     * @return true if the width or the height has changed
+     */
+    @Override
+    public boolean updateBounds() {
+        invalidateBounds();
+        return super.updateBounds();
+    }
+
+    @Override
+    public float getWidth() {
+        return mDrawer.getWidth();
+    }
+
+    @Override
+    public float getHeight() {
+        return mDrawer.getHeight();
+    }
+}
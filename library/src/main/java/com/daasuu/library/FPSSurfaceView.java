@@ -7,15 +7,19 @@ import android.graphics.Color;
 import android.graphics.PixelFormat;
 import android.graphics.PorterDuff;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.AttributeSet;
+import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
+import com.daasuu.library.animator.MultiFloatTween;
+import com.daasuu.library.animator.Timeline;
+import com.daasuu.library.callback.TouchCallBack;
 import com.daasuu.library.constant.Constant;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -29,8 +33,7 @@ public class FPSSurfaceView extends SurfaceView implements SurfaceHolder.Callbac
 
     private SurfaceHolder mSurfaceHolder;
 
-    private List<DisplayBase> mDisplayList = new ArrayList<>();
-    private final List<DisplayBase> mDrawingList = new ArrayList<>();
+    private final Stage mStage = new Stage(mFps);
 
     public FPSSurfaceView(Context context) {
         this(context, null, 0);
@@ -39,6 +42,7 @@ public class FPSSurfaceView extends SurfaceView implements SurfaceHolder.Callbac
     public FPSSurfaceView(Context context, int fps) {
         this(context, null, 0);
         mFps = fps;
+        mStage.setFps(fps);
     }
 
     public FPSSurfaceView(Context context, AttributeSet attrs) {
@@ -67,6 +71,7 @@ public class FPSSurfaceView extends SurfaceView implements SurfaceHolder.Callbac
         TypedArray ta = getContext().obtainStyledAttributes(attrs, R.styleable.FPSAnimator);
         mFps = ta.getInteger(R.styleable.FPSAnimator_FPSAnimator_fps, Constant.DEFAULT_FPS);
         ta.recycle();
+        mStage.setFps(mFps);
 
     }
 
@@ -77,6 +82,7 @@ public class FPSSurfaceView extends SurfaceView implements SurfaceHolder.Callbac
      */
     public FPSSurfaceView tickStart() {
         tickStop();
+        mStage.resetClock();
         mTimer = new Timer();
         mTimer.schedule(new TimerTask() {
             @Override
@@ -106,19 +112,11 @@ public class FPSSurfaceView extends SurfaceView implements SurfaceHolder.Callbac
 
             canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
 
-            mDrawingList.addAll(mDisplayList);
-            mDrawingList.removeAll(Collections.singleton(null));
-            Collections.sort(mDrawingList);
-            for (DisplayBase DisplayBase : mDrawingList) {
-                if (DisplayBase == null) {
-                    continue;
-                }
-                DisplayBase.draw(canvas);
-            }
-            mDrawingList.clear();
+            mStage.draw(canvas);
 
             mSurfaceHolder.unlockCanvasAndPost(canvas);
         }
+        mStage.scheduleCallbacks();
 
     }
 
@@ -139,93 +137,206 @@ public class FPSSurfaceView extends SurfaceView implements SurfaceHolder.Callbac
 
     /**
      * Adds a child to the top of the display list.
+     * If a frame is being drawn, the child is added when it has finished.
      *
      * @param DisplayBase DisplayBase
      * @return this
      */
     public FPSSurfaceView addChild(@NonNull DisplayBase DisplayBase) {
-        DisplayBase.setUp(mFps);
-        mDisplayList.add(DisplayBase);
+        mStage.addChild(DisplayBase);
         return this;
     }
 
     /**
      * Adds a child to the display list at the specified index, bumping children at equal or greater indexes up one, and setting its parent to this Container
+     * If a frame is being drawn, the child is added when it has finished, and the index is clamped to the display list at that time.
      *
      * @param location    index
      * @param DisplayBase DisplayBase
      * @return this
      */
     public FPSSurfaceView addChildAt(int location, @NonNull DisplayBase DisplayBase) {
-        DisplayBase.setUp(mFps);
-        mDisplayList.add(location, DisplayBase);
+        mStage.addChildAt(location, DisplayBase);
         return this;
     }
 
     /**
-     * Removes the specified child from the display list.
+     * Removes the specified child from the display list. If a frame is being drawn, it is removed when the frame has finished.
      *
      * @param displayBase DisplayBase
      * @return this
      */
     public FPSSurfaceView removeChild(@NonNull DisplayBase displayBase) {
-        displayBase.disable();
-        mDisplayList.remove(displayBase);
+        mStage.removeChild(displayBase);
         return this;
     }
 
     /**
-     * Removes the child at the specified index from the display list.
+     * Removes the child at the specified index from the display list. If a frame is being drawn, it is removed when the frame has finished.
      *
      * @param location index
      * @return this
      */
     public FPSSurfaceView removeChildAt(int location) {
-        DisplayBase removed = mDisplayList.remove(location);
-        if (removed != null) {
-            removed.disable();
-        }
+        mStage.removeChildAt(location);
         return this;
     }
 
     /**
-     * Removes all children from the display list.
+     * Removes all children from the display list. If a frame is being drawn, they are removed when the frame has finished.
      *
      * @return this
      */
     public FPSSurfaceView removeAllChildren() {
-        mDisplayList.clear();
+        mStage.removeAllChildren();
         return this;
     }
 
     /**
-     * Swaps the specified children's depth in the display list. If either child is not a child of this Container, return false.
+     * Swaps the specified children's depth in the display list. If a frame is being drawn, they are swapped when the frame has finished.
+     * If either child is not a child of this view, including the changes not applied yet, return false.
      *
      * @param child1 DisplayBase
      * @param child2 DisplayBase
      * @return if true, success to swapChildren
      */
     public boolean swapChildren(@NonNull DisplayBase child1, @NonNull DisplayBase child2) {
-        int childIndex1 = mDisplayList.indexOf(child1);
-        int childIndex2 = mDisplayList.indexOf(child2);
+        return mStage.swapChildren(child1, child2);
+    }
 
-        if (childIndex1 == -1 || childIndex2 == -1) {
-            return false;
-        }
+    /**
+     * Getter DisplayList. While a frame is being drawn, it is the display list when the last frame finished.
+     *
+     * @return unmodifiable copy of the DisplayList
+     */
+    public List<DisplayBase> getDisplayList() {
+        return mStage.getDisplayList();
+    }
 
-        removeChildAt(childIndex1);
-        addChildAt(childIndex1, child2);
-        removeChildAt(childIndex2);
-        addChildAt(childIndex2, child1);
-        return true;
+    /**
+     * Add a root timeline, whose clock is advanced at the beginning of every frame.
+     *
+     * @param timeline timeline which is not added to another timeline
+     * @return this
+     */
+    public FPSSurfaceView addTimeline(@NonNull Timeline timeline) {
+        mStage.addTimeline(timeline);
+        return this;
     }
 
     /**
-     * Getter DisplayList
+     * Remove the timeline. Its members stay at the current position.
      *
-     * @return DisplayList
+     * @param timeline timeline
+     * @return this
      */
-    public List<DisplayBase> getDisplayList() {
-        return mDisplayList;
+    public FPSSurfaceView removeTimeline(@NonNull Timeline timeline) {
+        mStage.removeTimeline(timeline);
+        return this;
+    }
+
+    /**
+     * Add a tween of numeric values, which is advanced and written into its slots at the beginning of every frame.
+     * A {@link com.daasuu.library.animator.FloatTween} can be added too.
+     *
+     * @param floatTween tween
+     * @return this
+     */
+    public FPSSurfaceView addFloatTween(@NonNull MultiFloatTween floatTween) {
+        mStage.addFloatTween(floatTween);
+        return this;
+    }
+
+    /**
+     * Remove the tween. Its slots keep the current values.
+     *
+     * @param floatTween tween
+     * @return this
+     */
+    public FPSSurfaceView removeFloatTween(@NonNull MultiFloatTween floatTween) {
+        mStage.removeFloatTween(floatTween);
+        return this;
+    }
+
+    /**
+     * If true, display objects whose bounds are completely outside the canvas are not drawn.
+     * What happens to their animators is decided by {@link DisplayBase#cullingPolicy(CullingPolicy)}.
+     * default false.
+     *
+     * @param culling If true, enable culling.
+     * @return this
+     */
+    public FPSSurfaceView culling(boolean culling) {
+        mStage.setCullingEnabled(culling);
+        return this;
+    }
+
+    /**
+     * Set the speed of the animations, for example 0.25 for slow motion or 2 for double speed.
+     * Tweens, sprite sheets, parabolic motions and timelines follow it from the next frame without being baked again.
+     * default 1.
+     *
+     * @param timeScale The speed, as a percentage of 1
+     * @return this
+     */
+    public FPSSurfaceView timeScale(float timeScale) {
+        mStage.setTimeScale(timeScale);
+        return this;
+    }
+
+    /**
+     * Getter the speed of the animations.
+     *
+     * @return The speed, as a percentage of 1
+     */
+    public float getTimeScale() {
+        return mStage.getTimeScale();
+    }
+
+    /**
+     * Set how the callbacks of tweens, parabolic motions and sprite sheets are called.
+     * With {@link CallbackDispatchMode#DEFERRED}, a slow callback does not stall drawing.
+     * default {@link CallbackDispatchMode#INLINE}.
+     *
+     * @param callbackDispatchMode mode
+     * @return this
+     */
+    public FPSSurfaceView callbackDispatchMode(@NonNull CallbackDispatchMode callbackDispatchMode) {
+        mStage.setCallbackDispatchMode(callbackDispatchMode);
+        return this;
+    }
+
+    /**
+     * Set the executor which calls the callbacks deferred by {@link CallbackDispatchMode#DEFERRED}.
+     * default the UI thread.
+     *
+     * @param executor executor
+     * @return this
+     */
+    public FPSSurfaceView callbackExecutor(@NonNull Executor executor) {
+        mStage.setCallbackExecutor(executor);
+        return this;
+    }
+
+    /**
+     * Set the callback for the topmost display object which contains a touch-down point.
+     * Hit-testing runs after the next frame is drawn, with scale, rotation and parent containers applied,
+     * and the callback is called on the UI thread.
+     *
+     * @param touchCallBack callback, or null to stop hit-testing
+     * @return this
+     */
+    public FPSSurfaceView touchCallBack(@Nullable TouchCallBack touchCallBack) {
+        mStage.setTouchCallBack(touchCallBack);
+        return this;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mStage.hasTouchCallBack() && event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mStage.touch(event.getX(), event.getY());
+            return true;
+        }
+        return super.onTouchEvent(event);
     }
 }
@@ -7,14 +7,18 @@ import android.graphics.Color;
 import android.graphics.PorterDuff;
 import android.graphics.SurfaceTexture;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.AttributeSet;
+import android.view.MotionEvent;
 import android.view.TextureView;
 
+import com.daasuu.library.animator.MultiFloatTween;
+import com.daasuu.library.animator.Timeline;
+import com.daasuu.library.callback.TouchCallBack;
 import com.daasuu.library.constant.Constant;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -25,8 +29,7 @@ public class FPSTextureView extends TextureView implements TextureView.SurfaceTe
     private Timer mTimer;
     private int mFps = Constant.DEFAULT_FPS;
 
-    private List<DisplayBase> mDisplayList = new ArrayList<>();
-    private final List<DisplayBase> mDrawingList = new ArrayList<>();
+    private final Stage mStage = new Stage(mFps);
 
     public FPSTextureView(Context context) {
         this(context, null, 0);
@@ -35,6 +38,7 @@ public class FPSTextureView extends TextureView implements TextureView.SurfaceTe
     public FPSTextureView(Context context, int fps) {
         this(context, null, 0);
         mFps = fps;
+        mStage.setFps(fps);
     }
 
     public FPSTextureView(Context context, AttributeSet attrs) {
@@ -60,6 +64,7 @@ public class FPSTextureView extends TextureView implements TextureView.SurfaceTe
         TypedArray ta = getContext().obtainStyledAttributes(attrs, R.styleable.FPSAnimator);
         mFps = ta.getInteger(R.styleable.FPSAnimator_FPSAnimator_fps, Constant.DEFAULT_FPS);
         ta.recycle();
+        mStage.setFps(mFps);
     }
 
     /**
@@ -69,6 +74,7 @@ public class FPSTextureView extends TextureView implements TextureView.SurfaceTe
      */
     public FPSTextureView tickStart() {
         tickStop();
+        mStage.resetClock();
         mTimer = new Timer();
         mTimer.schedule(new TimerTask() {
             @Override
@@ -97,19 +103,11 @@ public class FPSTextureView extends TextureView implements TextureView.SurfaceTe
 
             canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
 
-            mDrawingList.addAll(mDisplayList);
-            mDrawingList.removeAll(Collections.singleton(null));
-            Collections.sort(mDrawingList);
-            for (DisplayBase displayBase : mDrawingList) {
-                if (displayBase == null) {
-                    continue;
-                }
-                displayBase.draw(canvas);
-            }
-            mDrawingList.clear();
+            mStage.draw(canvas);
 
             this.unlockCanvasAndPost(canvas);
         }
+        mStage.scheduleCallbacks();
 
     }
 
@@ -143,93 +141,206 @@ public class FPSTextureView extends TextureView implements TextureView.SurfaceTe
 
     /**
      * Adds a child to the top of the display list.
+     * If a frame is being drawn, the child is added when it has finished.
      *
      * @param DisplayObject DisplayObject2
      * @return this
      */
     public FPSTextureView addChild(@NonNull DisplayBase DisplayObject) {
-        DisplayObject.setUp(mFps);
-        mDisplayList.add(DisplayObject);
+        mStage.addChild(DisplayObject);
         return this;
     }
 
     /**
      * Adds a child to the display list at the specified index, bumping children at equal or greater indexes up one, and setting its parent to this Container
+     * If a frame is being drawn, the child is added when it has finished, and the index is clamped to the display list at that time.
      *
      * @param location    index
      * @param displayBase DisplayObject2
      * @return this
      */
     public FPSTextureView addChildAt(int location, @NonNull DisplayBase displayBase) {
-        displayBase.setUp(mFps);
-        mDisplayList.add(location, displayBase);
+        mStage.addChildAt(location, displayBase);
         return this;
     }
 
     /**
-     * Removes the specified child from the display list.
+     * Removes the specified child from the display list. If a frame is being drawn, it is removed when the frame has finished.
      *
      * @param displayBase DisplayBase
      * @return this
      */
     public FPSTextureView removeChild(@NonNull DisplayBase displayBase) {
-        displayBase.disable();
-        boolean a = mDisplayList.remove(displayBase);
+        mStage.removeChild(displayBase);
         return this;
     }
 
     /**
-     * Removes the child at the specified index from the display list.
+     * Removes the child at the specified index from the display list. If a frame is being drawn, it is removed when the frame has finished.
      *
      * @param location index
      * @return this
      */
     public FPSTextureView removeChildAt(int location) {
-        DisplayBase removed = mDisplayList.remove(location);
-        if (removed != null) {
-            removed.disable();
-        }
+        mStage.removeChildAt(location);
         return this;
     }
 
     /**
-     * Removes all children from the display list.
+     * Removes all children from the display list. If a frame is being drawn, they are removed when the frame has finished.
      *
      * @return this
      */
     public FPSTextureView removeAllChildren() {
-        mDisplayList.clear();
+        mStage.removeAllChildren();
         return this;
     }
 
     /**
-     * Swaps the specified children's depth in the display list. If either child is not a child of this Container, return false.
+     * Swaps the specified children's depth in the display list. If a frame is being drawn, they are swapped when the frame has finished.
+     * If either child is not a child of this view, including the changes not applied yet, return false.
      *
      * @param child1 DisplayObject
      * @param child2 DisplayObject
      * @return if true, success to swapChildren
      */
     public boolean swapChildren(@NonNull DisplayBase child1, @NonNull DisplayBase child2) {
-        int childIndex1 = mDisplayList.indexOf(child1);
-        int childIndex2 = mDisplayList.indexOf(child2);
+        return mStage.swapChildren(child1, child2);
+    }
 
-        if (childIndex1 == -1 || childIndex2 == -1) {
-            return false;
-        }
+    /**
+     * Getter DisplayList. While a frame is being drawn, it is the display list when the last frame finished.
+     *
+     * @return unmodifiable copy of the DisplayList
+     */
+    public List<DisplayBase> getDisplayList() {
+        return mStage.getDisplayList();
+    }
 
-        removeChildAt(childIndex1);
-        addChildAt(childIndex1, child2);
-        removeChildAt(childIndex2);
-        addChildAt(childIndex2, child1);
-        return true;
+    /**
+     * Add a root timeline, whose clock is advanced at the beginning of every frame.
+     *
+     * @param timeline timeline which is not added to another timeline
+     * @return this
+     */
+    public FPSTextureView addTimeline(@NonNull Timeline timeline) {
+        mStage.addTimeline(timeline);
+        return this;
     }
 
     /**
-     * Getter DisplayList
+     * Remove the timeline. Its members stay at the current position.
      *
-     * @return DisplayList
+     * @param timeline timeline
+     * @return this
      */
-    public List<DisplayBase> getDisplayList() {
-        return mDisplayList;
+    public FPSTextureView removeTimeline(@NonNull Timeline timeline) {
+        mStage.removeTimeline(timeline);
+        return this;
+    }
+
+    /**
+     * Add a tween of numeric values, which is advanced and written into its slots at the beginning of every frame.
+     * A {@link com.daasuu.library.animator.FloatTween} can be added too.
+     *
+     * @param floatTween tween
+     * @return this
+     */
+    public FPSTextureView addFloatTween(@NonNull MultiFloatTween floatTween) {
+        mStage.addFloatTween(floatTween);
+        return this;
+    }
+
+    /**
+     * Remove the tween. Its slots keep the current values.
+     *
+     * @param floatTween tween
+     * @return this
+     */
+    public FPSTextureView removeFloatTween(@NonNull MultiFloatTween floatTween) {
+        mStage.removeFloatTween(floatTween);
+        return this;
+    }
+
+    /**
+     * If true, display objects whose bounds are completely outside the canvas are not drawn.
+     * What happens to their animators is decided by {@link DisplayBase#cullingPolicy(CullingPolicy)}.
+     * default false.
+     *
+     * @param culling If true, enable culling.
+     * @return this
+     */
+    public FPSTextureView culling(boolean culling) {
+        mStage.setCullingEnabled(culling);
+        return this;
+    }
+
+    /**
+     * Set the speed of the animations, for example 0.25 for slow motion or 2 for double speed.
+     * Tweens, sprite sheets, parabolic motions and timelines follow it from the next frame without being baked again.
+     * default 1.
+     *
+     * @param timeScale The speed, as a percentage of 1
+     * @return this
+     */
+    public FPSTextureView timeScale(float timeScale) {
+        mStage.setTimeScale(timeScale);
+        return this;
+    }
+
+    /**
+     * Getter the speed of the animations.
+     *
+     * @return The speed, as a percentage of 1
+     */
+    public float getTimeScale() {
+        return mStage.getTimeScale();
+    }
+
+    /**
+     * Set how the callbacks of tweens, parabolic motions and sprite sheets are called.
+     * With {@link CallbackDispatchMode#DEFERRED}, a slow callback does not stall drawing.
+     * default {@link CallbackDispatchMode#INLINE}.
+     *
+     * @param callbackDispatchMode mode
+     * @return this
+     */
+    public FPSTextureView callbackDispatchMode(@NonNull CallbackDispatchMode callbackDispatchMode) {
+        mStage.setCallbackDispatchMode(callbackDispatchMode);
+        return this;
+    }
+
+    /**
+     * Set the executor which calls the callbacks deferred by {@link CallbackDispatchMode#DEFERRED}.
+     * default the UI thread.
+     *
+     * @param executor executor
+     * @return this
+     */
+    public FPSTextureView callbackExecutor(@NonNull Executor executor) {
+        mStage.setCallbackExecutor(executor);
+        return this;
+    }
+
+    /**
+     * Set the callback for the topmost display object which contains a touch-down point.
+     * Hit-testing runs after the next frame is drawn, with scale, rotation and parent containers applied,
+     * and the callback is called on the UI thread.
+     *
+     * @param touchCallBack callback, or null to stop hit-testing
+     * @return this
+     */
+    public FPSTextureView touchCallBack(@Nullable TouchCallBack touchCallBack) {
+        mStage.setTouchCallBack(touchCallBack);
+        return this;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mStage.hasTouchCallBack() && event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mStage.touch(event.getX(), event.getY());
+            return true;
+        }
+        return super.onTouchEvent(event);
     }
 }
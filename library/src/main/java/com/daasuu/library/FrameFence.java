@@ -0,0 +1,111 @@
+package com.daasuu.library;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the frames being drawn by all FPSTextureViews and FPSSurfaceViews, so memory given up by another thread
+ * is reused only after every frame which may still draw it has finished.
+ */
+public final class FrameFence {
+
+    private static final Object sLock = new Object();
+
+    /**
+     * The sequence number of the last frame begun by any view.
+     */
+    private static long sLastFrame = 0;
+
+    /**
+     * The sequence numbers of the frames being drawn, one for each view drawing now.
+     */
+    private static long[] sDrawing = new long[4];
+
+    private static int sDrawingCount = 0;
+
+    /**
+     * Actions waiting for the frames being drawn when they were queued, in the order of sLastFrame at that time.
+     */
+    private static final ArrayDeque<Waiter> sWaiters = new ArrayDeque<>();
+
+    private FrameFence() {
+    }
+
+    /**
+     * Run the action after every frame being drawn now has finished, on the thread which finishes the last one.
+     * If no frame is being drawn, it is run now on this thread.
+     *
+     * @param action action which reuses memory that the frames may still draw
+     */
+    public static void runAfterFrames(@NonNull Runnable action) {
+        synchronized (sLock) {
+            if (sDrawingCount > 0) {
+                sWaiters.addLast(new Waiter(sLastFrame, action));
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * This is called from the drawing thread when a frame begins.
+     *
+     * @return sequence number of the frame, passed to {@link #end(long)}
+     */
+    static long begin() {
+        synchronized (sLock) {
+            if (sDrawingCount == sDrawing.length) {
+                long[] drawing = new long[sDrawingCount * 2];
+                System.arraycopy(sDrawing, 0, drawing, 0, sDrawingCount);
+                sDrawing = drawing;
+            }
+            long frame = ++sLastFrame;
+            sDrawing[sDrawingCount++] = frame;
+            return frame;
+        }
+    }
+
+    /**
+     * This is called from the drawing thread when a frame has finished, and runs the actions which were waiting only for it.
+     *
+     * @param frame sequence number returned by {@link #begin()}
+     */
+    static void end(long frame) {
+        List<Runnable> actions = null;
+        synchronized (sLock) {
+            long oldest = Long.MAX_VALUE;
+            for (int i = sDrawingCount - 1; i >= 0; i--) {
+                if (sDrawing[i] == frame) {
+                    sDrawing[i] = sDrawing[--sDrawingCount];
+                } else {
+                    oldest = Math.min(oldest, sDrawing[i]);
+                }
+            }
+            while (!sWaiters.isEmpty() && sWaiters.peekFirst().lastFrame < oldest) {
+                if (actions == null) {
+                    actions = new ArrayList<>();
+                }
+                actions.add(sWaiters.pollFirst().action);
+            }
+        }
+        if (actions == null) {
+            return;
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    private static final class Waiter {
+        private final long lastFrame;
+        private final Runnable action;
+
+        private Waiter(long lastFrame, Runnable action) {
+            this.lastFrame = lastFrame;
+            this.action = action;
+        }
+    }
+}
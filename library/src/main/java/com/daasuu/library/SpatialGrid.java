@@ -0,0 +1,178 @@
+package com.daasuu.library;
+
+import android.graphics.RectF;
+import android.util.LongSparseArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Uniform grid of display objects keyed by their bounds on the canvas.
+ * An object is moved between cells only when the range of cells it covers changes.
+ * All methods but {@link #remove(DisplayBase)} must be called from the drawing thread.
+ */
+final class SpatialGrid {
+
+    /**
+     * Objects covering more cells than this are kept in a single list instead of the cells.
+     */
+    private static final int MAX_CELLS_PER_ENTRY = 64;
+
+    private final float mCellSize;
+
+    private final LongSparseArray<List<DisplayBase>> mCells = new LongSparseArray<>();
+
+    private final List<DisplayBase> mOversized = new ArrayList<>();
+
+    /**
+     * Objects removed from other threads, which are removed from the cells at the beginning of the next frame.
+     */
+    private final ConcurrentLinkedQueue<DisplayBase> mRemovals = new ConcurrentLinkedQueue<>();
+
+    SpatialGrid(float cellSize) {
+        mCellSize = cellSize;
+    }
+
+    /**
+     * Move the object to the cells covering the bounds.
+     *
+     * @param displayBase display object
+     * @param bounds      The bounds on the canvas
+     */
+    void update(DisplayBase displayBase, RectF bounds) {
+        Entry entry = displayBase.mGridEntry;
+        if (entry == null) {
+            entry = new Entry();
+            displayBase.mGridEntry = entry;
+        }
+
+        int left = (int) Math.floor(bounds.left / mCellSize);
+        int top = (int) Math.floor(bounds.top / mCellSize);
+        int right = (int) Math.floor(bounds.right / mCellSize);
+        int bottom = (int) Math.floor(bounds.bottom / mCellSize);
+
+        if (entry.indexed && entry.left == left && entry.top == top && entry.right == right && entry.bottom == bottom) {
+            return;
+        }
+
+        if (entry.indexed) {
+            removeFromCells(displayBase, entry);
+        }
+
+        entry.indexed = true;
+        entry.left = left;
+        entry.top = top;
+        entry.right = right;
+        entry.bottom = bottom;
+        entry.oversized = (long) (right - left + 1) * (bottom - top + 1) > MAX_CELLS_PER_ENTRY;
+
+        if (entry.oversized) {
+            mOversized.add(displayBase);
+            return;
+        }
+
+        for (int cy = top; cy <= bottom; cy++) {
+            for (int cx = left; cx <= right; cx++) {
+                long key = key(cx, cy);
+                List<DisplayBase> cell = mCells.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<>();
+                    mCells.put(key, cell);
+                }
+                cell.add(displayBase);
+            }
+        }
+    }
+
+    /**
+     * Remove the object from the grid at the beginning of the next frame. This can be called from any thread.
+     *
+     * @param displayBase display object
+     */
+    void remove(DisplayBase displayBase) {
+        mRemovals.offer(displayBase);
+    }
+
+    /**
+     * Apply the removals requested by {@link #remove(DisplayBase)}.
+     */
+    void flushRemovals() {
+        DisplayBase displayBase;
+        while ((displayBase = mRemovals.poll()) != null) {
+            Entry entry = displayBase.mGridEntry;
+            if (entry != null && entry.indexed) {
+                removeFromCells(displayBase, entry);
+            }
+        }
+    }
+
+    /**
+     * Collect the objects whose cells contain the point. The result may contain objects which do not contain the point.
+     *
+     * @param x   The horizontal position on the canvas in pixels
+     * @param y   The vertical position on the canvas in pixels
+     * @param out list to add the candidates
+     */
+    void query(float x, float y, List<DisplayBase> out) {
+        List<DisplayBase> cell = mCells.get(key((int) Math.floor(x / mCellSize), (int) Math.floor(y / mCellSize)));
+        if (cell != null) {
+            out.addAll(cell);
+        }
+        out.addAll(mOversized);
+    }
+
+    /**
+     * Remove all objects.
+     */
+    void clear() {
+        for (int i = 0, n = mCells.size(); i < n; i++) {
+            for (DisplayBase displayBase : mCells.valueAt(i)) {
+                displayBase.mGridEntry.indexed = false;
+            }
+        }
+        for (DisplayBase displayBase : mOversized) {
+            displayBase.mGridEntry.indexed = false;
+        }
+        mCells.clear();
+        mOversized.clear();
+        mRemovals.clear();
+    }
+
+    private void removeFromCells(DisplayBase displayBase, Entry entry) {
+        entry.indexed = false;
+        if (entry.oversized) {
+            mOversized.remove(displayBase);
+            return;
+        }
+        for (int cy = entry.top; cy <= entry.bottom; cy++) {
+            for (int cx = entry.left; cx <= entry.right; cx++) {
+                long key = key(cx, cy);
+                List<DisplayBase> cell = mCells.get(key);
+                if (cell == null) {
+                    continue;
+                }
+                cell.remove(displayBase);
+                if (cell.isEmpty()) {
+                    mCells.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The range of cells covered by a display object.
+     */
+    static final class Entry {
+        private boolean indexed;
+        private boolean oversized;
+        private int left;
+        private int top;
+        private int right;
+        private int bottom;
+    }
+}
@@ -0,0 +1,699 @@
+package com.daasuu.library;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.daasuu.library.animator.MultiFloatTween;
+import com.daasuu.library.animator.Timeline;
+import com.daasuu.library.callback.AnimCallBack;
+import com.daasuu.library.callback.TouchCallBack;
+import com.daasuu.library.constant.Constant;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * The display list and the drawing of a frame, shared by FPSTextureView and FPSSurfaceView.
+ */
+final class Stage {
+
+    /**
+     * The size of a cell of the spatial index in pixels.
+     */
+    private static final float SPATIAL_GRID_CELL_SIZE = 128;
+
+    private int mFps;
+
+    private final List<DisplayBase> mDisplayList = new ArrayList<>();
+    private final List<DisplayBase> mDrawingList = new ArrayList<>();
+
+    /**
+     * An unmodifiable copy of mDisplayList, returned by {@link #getDisplayList()}.
+     * It is replaced when no frame is being drawn, so other threads never see the display list changing.
+     */
+    private volatile List<DisplayBase> mPublishedDisplayList = Collections.emptyList();
+
+    private boolean mDisplayListChanged = false;
+
+    /**
+     * Containers on this Stage whose children have changed since their copies were published.
+     */
+    private final List<Container> mChangedContainers = new ArrayList<>();
+
+    /**
+     * If true, display objects completely outside the canvas are not drawn.
+     */
+    private volatile boolean mCullingEnabled = false;
+
+    /**
+     * The speed of the clock of all display objects and timelines, as a percentage of 1.
+     */
+    private volatile float mTimeScale = 1f;
+
+    /**
+     * The spatial index for hit-testing. Culling tests the bounds of each display object, so the index is kept only
+     * while a touch callback is set.
+     */
+    private final SpatialGrid mSpatialGrid = new SpatialGrid(SPATIAL_GRID_CELL_SIZE);
+
+    /**
+     * Whether mSpatialGrid is kept in this frame. Read and written only by the drawing thread.
+     */
+    private boolean mSpatialGridEnabled = false;
+
+    /**
+     * The region of the canvas to be drawn in this frame.
+     */
+    private final RectF mVisibleRect = new RectF();
+
+    private final Rect mClipBounds = new Rect();
+
+    /**
+     * Greater than 0 while a Container is drawing its children into its cache bitmap.
+     */
+    private int mOffscreenDepth = 0;
+
+    private volatile TouchCallBack mTouchCallBack;
+
+    /**
+     * Touched points from the UI thread, which are hit-tested after the next frame is drawn.
+     */
+    private final ConcurrentLinkedQueue<float[]> mPendingTouches = new ConcurrentLinkedQueue<>();
+
+    private final Handler mUiHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Guards mDrawing, and the display lists while no frame is being drawn.
+     */
+    private final Object mLock = new Object();
+
+    /**
+     * True while a frame is being drawn. Guarded by mLock.
+     */
+    private boolean mDrawing = false;
+
+    /**
+     * Commands posted while a frame is being drawn, which are run when it has finished. Guarded by mLock.
+     */
+    private final List<Runnable> mCommands = new ArrayList<>();
+
+    /**
+     * Root timelines whose clocks are advanced at the beginning of every frame.
+     */
+    private final List<Timeline> mTimelines = new CopyOnWriteArrayList<>();
+
+    /**
+     * Tweens of numeric values advanced on the same clock as the timelines.
+     */
+    private final List<MultiFloatTween> mFloatTweens = new CopyOnWriteArrayList<>();
+
+    /**
+     * The time when the timelines were advanced last in milliseconds, or -1 if the clock is not started.
+     */
+    private long mLastFrameTime = -1;
+
+    private volatile CallbackDispatchMode mCallbackDispatchMode = CallbackDispatchMode.INLINE;
+
+    /**
+     * Callbacks deferred by {@link CallbackDispatchMode#DEFERRED}, drained on the UI thread by default.
+     */
+    private final CallbackQueue mCallbackQueue = new CallbackQueue(Constant.CALLBACK_QUEUE_CAPACITY, new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mUiHandler.post(command);
+        }
+    });
+
+    /**
+     * Incremented every time a display object is drawn, so a larger value is on top.
+     */
+    private long mDrawOrder = 0;
+
+    /**
+     * The first draw order of the current frame.
+     */
+    private long mFrameDrawOrder = 1;
+
+    /**
+     * Display objects whose animators have finished in this frame, to which the completion policy is applied at the end of the frame.
+     */
+    private final List<DisplayBase> mCompleted = new ArrayList<>();
+
+    private final List<DisplayBase> mHitCandidates = new ArrayList<>();
+
+    private final Matrix mHitMatrix = new Matrix();
+
+    private final float[] mHitPoint = new float[2];
+
+    Stage(int fps) {
+        mFps = fps;
+    }
+
+    void setFps(int fps) {
+        mFps = fps;
+    }
+
+    int getFps() {
+        return mFps;
+    }
+
+    void setCullingEnabled(boolean cullingEnabled) {
+        mCullingEnabled = cullingEnabled;
+    }
+
+    /**
+     * Whether culling is enabled. It is always false while drawing into an offscreen bitmap.
+     *
+     * @return true if enabled
+     */
+    boolean isCullingEnabled() {
+        return mCullingEnabled && mOffscreenDepth == 0;
+    }
+
+    /**
+     * Called before drawing into an offscreen bitmap, such as the cache of a Container.
+     * Culling and bounds are disabled until {@link #endOffscreen()}, since the coordinates are not on the canvas.
+     */
+    void beginOffscreen() {
+        mOffscreenDepth++;
+    }
+
+    void endOffscreen() {
+        mOffscreenDepth--;
+    }
+
+    boolean isOffscreen() {
+        return mOffscreenDepth > 0;
+    }
+
+    /**
+     * Whether display objects should compute their bounds on the canvas in this frame.
+     *
+     * @return true if the bounds are used
+     */
+    boolean isBoundsRequired() {
+        return mOffscreenDepth == 0 && (mCullingEnabled || mTouchCallBack != null);
+    }
+
+    void setTimeScale(float timeScale) {
+        mTimeScale = Math.max(0f, timeScale);
+    }
+
+    float getTimeScale() {
+        return mTimeScale;
+    }
+
+    void setCallbackDispatchMode(@NonNull CallbackDispatchMode callbackDispatchMode) {
+        mCallbackDispatchMode = callbackDispatchMode;
+    }
+
+    void setCallbackExecutor(@NonNull Executor executor) {
+        mCallbackQueue.setExecutor(executor);
+    }
+
+    void setTouchCallBack(@Nullable TouchCallBack touchCallBack) {
+        mTouchCallBack = touchCallBack;
+    }
+
+    boolean hasTouchCallBack() {
+        return mTouchCallBack != null;
+    }
+
+    /**
+     * Request hit-testing at the point. This is called from the UI thread,
+     * and the result is posted to the UI thread after the next frame is drawn.
+     *
+     * @param x The horizontal position on the canvas in pixels
+     * @param y The vertical position on the canvas in pixels
+     */
+    void touch(float x, float y) {
+        mPendingTouches.offer(new float[]{x, y});
+    }
+
+    void addTimeline(@NonNull Timeline timeline) {
+        mTimelines.add(timeline);
+    }
+
+    void removeTimeline(@NonNull Timeline timeline) {
+        mTimelines.remove(timeline);
+    }
+
+    void addFloatTween(@NonNull MultiFloatTween floatTween) {
+        mFloatTweens.add(floatTween);
+    }
+
+    void removeFloatTween(@NonNull MultiFloatTween floatTween) {
+        mFloatTweens.remove(floatTween);
+    }
+
+    /**
+     * Restart the clock, so the time while the tick is stopped is not counted. This is called when the tick starts.
+     */
+    void resetClock() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                mLastFrameTime = -1;
+            }
+        });
+    }
+
+    /**
+     * Run the command now if no frame is being drawn, otherwise when the frame has finished, so no display object
+     * is changed while it is drawn. This can be called from any thread, including the drawing thread.
+     *
+     * @param command command
+     */
+    void post(@NonNull Runnable command) {
+        synchronized (mLock) {
+            if (mDrawing) {
+                mCommands.add(command);
+            } else {
+                command.run();
+            }
+        }
+    }
+
+    /**
+     * Return the draw order of a display object drawn now.
+     *
+     * @return draw order
+     */
+    long nextDrawOrder() {
+        return ++mDrawOrder;
+    }
+
+    /**
+     * Apply the completion policy of the display object at the end of this frame.
+     * This is called from the drawing thread when its animator has finished.
+     *
+     * @param displayBase display object whose animator has finished
+     */
+    void complete(@NonNull DisplayBase displayBase) {
+        mCompleted.add(displayBase);
+    }
+
+    SpatialGrid getSpatialGrid() {
+        return mSpatialGrid;
+    }
+
+    /**
+     * Whether display objects should be moved in the spatial index in this frame, which is only used for hit-testing.
+     *
+     * @return true if the spatial index is kept
+     */
+    boolean isSpatialGridEnabled() {
+        return mSpatialGridEnabled;
+    }
+
+    /**
+     * Whether the bounds intersect with the region of the canvas to be drawn in this frame.
+     *
+     * @param bounds The bounds on the canvas
+     * @return true if visible
+     */
+    boolean isVisible(RectF bounds) {
+        return RectF.intersects(mVisibleRect, bounds);
+    }
+
+    /**
+     * Draw all display objects in order of priority.
+     * Memory given up while the frame is drawn, such as bitmaps evicted from BitmapCache, is reused only after it has finished.
+     *
+     * @param canvas This Canvas acquired by lookCanvas in FPSTextureView or FPSSurfaceView.
+     */
+    void draw(@NonNull Canvas canvas) {
+        synchronized (mLock) {
+            mDrawing = true;
+        }
+        long frame = FrameFence.begin();
+        CallbackQueue.begin(mCallbackDispatchMode == CallbackDispatchMode.DEFERRED ? mCallbackQueue : null);
+        try {
+            drawFrame(canvas);
+        } finally {
+            // an exception in the frame must not leave this thread deferring callbacks to the queue
+            CallbackQueue.end();
+            FrameFence.end(frame);
+            synchronized (mLock) {
+                mDrawing = false;
+                runCommands();
+                publishDisplayLists();
+            }
+        }
+    }
+
+    private void drawFrame(@NonNull Canvas canvas) {
+        tickTimelines();
+        mSpatialGrid.flushRemovals();
+        boolean hitTesting = mTouchCallBack != null;
+        if (mSpatialGridEnabled && !hitTesting) {
+            // nothing is hit-tested, so the index is not kept
+            mSpatialGrid.clear();
+        }
+        mSpatialGridEnabled = hitTesting;
+        mFrameDrawOrder = mDrawOrder + 1;
+        if (isBoundsRequired()) {
+            canvas.getClipBounds(mClipBounds);
+            mVisibleRect.set(mClipBounds.left, mClipBounds.top, mClipBounds.right, mClipBounds.bottom);
+        }
+
+        mDrawingList.addAll(mDisplayList);
+        mDrawingList.removeAll(Collections.singleton(null));
+        Collections.sort(mDrawingList);
+        for (DisplayBase displayBase : mDrawingList) {
+            if (displayBase == null) {
+                continue;
+            }
+            displayBase.draw(canvas);
+        }
+        mDrawingList.clear();
+
+        dispatchTouches();
+        reapCompleted();
+    }
+
+    /**
+     * Advance the clocks of the timelines by the time since the last frame, so all of their members move in this frame.
+     */
+    private void tickTimelines() {
+        long now = SystemClock.uptimeMillis();
+        long elapsedTime = mLastFrameTime < 0 ? 0 : now - mLastFrameTime;
+        mLastFrameTime = now;
+        double scaledTime = elapsedTime * (double) mTimeScale;
+        for (Timeline timeline : mTimelines) {
+            timeline.tick(scaledTime);
+        }
+        for (MultiFloatTween floatTween : mFloatTweens) {
+            floatTween.tick(scaledTime);
+        }
+    }
+
+    /**
+     * Run the commands posted while the frame was drawn. A command which posts another one runs it now.
+     */
+    private void runCommands() {
+        for (int i = 0; i < mCommands.size(); i++) {
+            mCommands.get(i).run();
+        }
+        mCommands.clear();
+    }
+
+    /**
+     * Queue the callback to be called after the frame is posted, whatever the callback dispatch mode is.
+     * This is called only from the drawing thread.
+     *
+     * @param callBack callback
+     */
+    void postCallback(@NonNull AnimCallBack callBack) {
+        mCallbackQueue.offer(callBack);
+    }
+
+    /**
+     * Let the deferred callbacks of the frame be called. This is called after the frame is posted.
+     */
+    void scheduleCallbacks() {
+        mCallbackQueue.schedule();
+    }
+
+    /**
+     * Hide or remove the display objects whose animators have finished in this frame.
+     * Removed ones are returned to their pools when the frame has finished.
+     */
+    private void reapCompleted() {
+        for (int i = 0, n = mCompleted.size(); i < n; i++) {
+            DisplayBase displayBase = mCompleted.get(i);
+            if (displayBase.mStage != this) {
+                // already removed
+                continue;
+            }
+            switch (displayBase.getCompletionPolicy()) {
+                case HIDE:
+                    displayBase.hide();
+                    break;
+                case REMOVE:
+                    // the display lists are changed only on this thread, so they are removed now
+                    if (displayBase.mParent instanceof Container) {
+                        Container parent = (Container) displayBase.mParent;
+                        displayBase.clearOwner(parent);
+                        parent.removeChildNow(displayBase);
+                    } else {
+                        displayBase.clearOwner(this);
+                        removeChildNow(displayBase);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        mCompleted.clear();
+    }
+
+    /**
+     * Hit-test the pending touches against the bounds of this frame, and post the topmost display objects to the UI thread.
+     */
+    private void dispatchTouches() {
+        if (!mSpatialGridEnabled) {
+            // the touch callback was set during this frame, so the touches are hit-tested in the next one
+            if (mTouchCallBack == null) {
+                mPendingTouches.clear();
+            }
+            return;
+        }
+        float[] touch;
+        while ((touch = mPendingTouches.poll()) != null) {
+            final TouchCallBack touchCallBack = mTouchCallBack;
+            if (touchCallBack == null) {
+                mPendingTouches.clear();
+                return;
+            }
+
+            final float x = touch[0];
+            final float y = touch[1];
+            final DisplayBase hit = hitTest(x, y);
+            if (hit == null) {
+                continue;
+            }
+
+            mUiHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    touchCallBack.call(hit, x, y);
+                }
+            });
+        }
+    }
+
+    /**
+     * Find the topmost display object drawn in this frame which contains the point.
+     *
+     * @param x The horizontal position on the canvas in pixels
+     * @param y The vertical position on the canvas in pixels
+     * @return display object, or null
+     */
+    @Nullable
+    private DisplayBase hitTest(float x, float y) {
+        mSpatialGrid.query(x, y, mHitCandidates);
+
+        DisplayBase topmost = null;
+        for (int i = 0, n = mHitCandidates.size(); i < n; i++) {
+            DisplayBase candidate = mHitCandidates.get(i);
+            if (candidate.mDrawOrder < mFrameDrawOrder) {
+                // not drawn in this frame
+                continue;
+            }
+            if (topmost != null && candidate.mDrawOrder < topmost.mDrawOrder) {
+                continue;
+            }
+            if (candidate.hitTest(x, y, mHitMatrix, mHitPoint)) {
+                topmost = candidate;
+            }
+        }
+        mHitCandidates.clear();
+        return topmost;
+    }
+
+    /**
+     * Add the child now, or when the frame being drawn has finished.
+     *
+     * @param displayBase DisplayObject or Container
+     */
+    void addChild(@NonNull final DisplayBase displayBase) {
+        displayBase.setOwner(this, this);
+        post(new Runnable() {
+            @Override
+            public void run() {
+                attachChildAt(mDisplayList.size(), displayBase);
+            }
+        });
+    }
+
+    /**
+     * Add the child at the index now, or when the frame being drawn has finished. The index is clamped to the display list at that time.
+     *
+     * @param location    index
+     * @param displayBase DisplayObject or Container
+     */
+    void addChildAt(final int location, @NonNull final DisplayBase displayBase) {
+        displayBase.setOwner(this, this);
+        post(new Runnable() {
+            @Override
+            public void run() {
+                attachChildAt(location, displayBase);
+            }
+        });
+    }
+
+    void removeChild(@NonNull final DisplayBase displayBase) {
+        displayBase.clearOwner(this);
+        post(new Runnable() {
+            @Override
+            public void run() {
+                removeChildNow(displayBase);
+            }
+        });
+    }
+
+    void removeChildAt(final int location) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                if (location < 0 || location >= mDisplayList.size()) {
+                    return;
+                }
+                DisplayBase removed = detachChildAt(location);
+                if (removed != null) {
+                    removed.clearOwner(Stage.this);
+                    removed.recycle();
+                }
+            }
+        });
+    }
+
+    void removeAllChildren() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                List<DisplayBase> removed = new ArrayList<>(mDisplayList);
+                mDisplayList.clear();
+                mDisplayListChanged = true;
+                for (DisplayBase displayBase : removed) {
+                    if (displayBase != null) {
+                        displayBase.disable();
+                        displayBase.clearOwner(Stage.this);
+                        displayBase.recycle();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Swap the positions of the children in the display list now, or when the frame being drawn has finished.
+     *
+     * @return false if either child is not a child of this Stage, including the changes not applied yet
+     */
+    boolean swapChildren(@NonNull final DisplayBase child1, @NonNull final DisplayBase child2) {
+        if (!child1.isOwnedBy(this) || !child2.isOwnedBy(this)) {
+            return false;
+        }
+        post(new Runnable() {
+            @Override
+            public void run() {
+                int childIndex1 = mDisplayList.indexOf(child1);
+                int childIndex2 = mDisplayList.indexOf(child2);
+                if (childIndex1 != -1 && childIndex2 != -1) {
+                    Collections.swap(mDisplayList, childIndex1, childIndex2);
+                    mDisplayListChanged = true;
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Add the child now. This is called only while no other thread changes the display lists.
+     */
+    private void attachChildAt(int location, DisplayBase displayBase) {
+        displayBase.mParent = null;
+        displayBase.setUp(this);
+        mDisplayList.add(Math.max(0, Math.min(location, mDisplayList.size())), displayBase);
+        mDisplayListChanged = true;
+    }
+
+    /**
+     * Remove the child now, and return it to its pool. This is called only while no other thread changes the display lists.
+     */
+    private void removeChildNow(DisplayBase displayBase) {
+        int location = mDisplayList.indexOf(displayBase);
+        if (location != -1) {
+            detachChildAt(location);
+            displayBase.recycle();
+        }
+    }
+
+    /**
+     * Remove the child without returning it to its pool, so it can be added again.
+     */
+    private DisplayBase detachChildAt(int location) {
+        DisplayBase removed = mDisplayList.remove(location);
+        if (removed != null) {
+            removed.disable();
+        }
+        mDisplayListChanged = true;
+        return removed;
+    }
+
+    /**
+     * Publish the copy of the children of the Container when no frame is being drawn.
+     * This is called only while no other thread changes the display lists.
+     *
+     * @param container Container on this Stage whose children have changed
+     */
+    void publishLater(@NonNull Container container) {
+        mChangedContainers.add(container);
+    }
+
+    /**
+     * Publish the copies of the display lists which have changed, unless a frame is being drawn,
+     * in which case they are published when it has finished.
+     */
+    void refreshDisplayLists() {
+        synchronized (mLock) {
+            if (!mDrawing) {
+                publishDisplayLists();
+            }
+        }
+    }
+
+    private void publishDisplayLists() {
+        if (mDisplayListChanged) {
+            mDisplayListChanged = false;
+            mPublishedDisplayList = Collections.unmodifiableList(new ArrayList<>(mDisplayList));
+        }
+        for (int i = 0, n = mChangedContainers.size(); i < n; i++) {
+            mChangedContainers.get(i).publishChildren();
+        }
+        mChangedContainers.clear();
+    }
+
+    /**
+     * Getter the display list. While a frame is being drawn, it is the display list when the last frame finished.
+     *
+     * @return unmodifiable copy of the display list
+     */
+    List<DisplayBase> getDisplayList() {
+        refreshDisplayLists();
+        return mPublishedDisplayList;
+    }
+}
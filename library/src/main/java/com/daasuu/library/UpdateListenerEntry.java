@@ -0,0 +1,91 @@
+package com.daasuu.library;
+
+import com.daasuu.library.callback.AnimCallBack;
+import com.daasuu.library.callback.AnimUpdateListener;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An {@link AnimUpdateListener} added to a display object, with the values of the last frame for
+ * {@link CallbackDispatchMode#DEFERRED}. The entry itself is queued to the callback queue of the stage,
+ * at most once until it is called, so the listener receives the latest values without a queue of snapshots.
+ */
+final class UpdateListenerEntry implements AnimCallBack {
+
+    final AnimUpdateListener mListener;
+
+    private final CallbackDispatchMode mMode;
+
+    private final AtomicBoolean mQueued = new AtomicBoolean(false);
+
+    /**
+     * Odd while the drawing thread is writing the values.
+     */
+    private volatile int mVersion = 0;
+
+    private volatile float mX;
+    private volatile float mY;
+    private volatile int mAlpha;
+    private volatile float mScaleX;
+    private volatile float mScaleY;
+    private volatile float mRotation;
+    private volatile float mProgress;
+
+    UpdateListenerEntry(AnimUpdateListener listener, CallbackDispatchMode mode) {
+        mListener = listener;
+        mMode = mode;
+    }
+
+    /**
+     * Call the listener inline, or store the values and queue this entry. This is called only from the drawing thread.
+     *
+     * @param parameter animation parameter of the frame
+     * @param progress  The progress of the animator, as a percentage of 1
+     * @param stage     The stage which the display object is drawn on, or null
+     */
+    void update(AnimParameter parameter, float progress, Stage stage) {
+        if (mMode == CallbackDispatchMode.INLINE || stage == null) {
+            mListener.onUpdate(parameter.x, parameter.y, parameter.alpha, parameter.scaleX, parameter.scaleY, parameter.rotation, progress);
+            return;
+        }
+
+        int version = mVersion;
+        mVersion = version + 1;
+        mX = parameter.x;
+        mY = parameter.y;
+        mAlpha = parameter.alpha;
+        mScaleX = parameter.scaleX;
+        mScaleY = parameter.scaleY;
+        mRotation = parameter.rotation;
+        mProgress = progress;
+        mVersion = version + 2;
+
+        if (mQueued.compareAndSet(false, true)) {
+            stage.postCallback(this);
+        }
+    }
+
+    /**
+     * Call the listener with the latest values. Values written while reading are read again, so they are all of one frame.
+     */
+    @Override
+    public void call() {
+        mQueued.set(false);
+
+        float x, y, scaleX, scaleY, rotation, progress;
+        int alpha;
+        int version;
+        do {
+            version = mVersion;
+            x = mX;
+            y = mY;
+            alpha = mAlpha;
+            scaleX = mScaleX;
+            scaleY = mScaleY;
+            rotation = mRotation;
+            progress = mProgress;
+        } while ((version & 1) != 0 || version != mVersion);
+
+        mListener.onUpdate(x, y, alpha, scaleX, scaleY, rotation, progress);
+    }
+}
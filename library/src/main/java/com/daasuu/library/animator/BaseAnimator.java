@@ -0,0 +1,61 @@
+package com.daasuu.library.animator;
+
+import android.graphics.Canvas;
+
+import com.daasuu.library.AnimParameter;
+import com.daasuu.library.Animator;
+
+/**
+ * The base animation class which lets the display object skip work the animator does not need,
+ * and supports rewinding, time scale and progress.
+ * An {@link Animator} which does not extend this class is given the defaults of this class.
+ */
+public abstract class BaseAnimator implements Animator {
+
+    /**
+     * Whether {@link #setBaseLine(Canvas, float, float)} must be called every frame.
+     * If false, it is called only when the size of the object to be drawn or the size of the canvas has changed.
+     *
+     * @return true if the base line is required every frame. default true.
+     */
+    public boolean isBaseLineRequiredEveryFrame() {
+        return true;
+    }
+
+    /**
+     * Whether the animation has reached its end, so the animation parameter will not change any more.
+     *
+     * @return true if finished. default false.
+     */
+    public boolean isFinished() {
+        return false;
+    }
+
+    /**
+     * Rewind the animation to the beginning, so a pooled display object can be played again
+     * without composing the animation again. The animation parameter is restored by the display object.
+     * Nothing is rewound by default.
+     */
+    public void reset() {
+        // Do nothing
+    }
+
+    /**
+     * Set the speed of the animation. This is called every frame before {@link #updateAnimParam(AnimParameter)},
+     * so it must not do more than storing the value. It is ignored by default.
+     *
+     * @param timeScale The speed, as a percentage of 1
+     */
+    public void setTimeScale(float timeScale) {
+        // Do nothing
+    }
+
+    /**
+     * return the progress of the animation, passed to {@link com.daasuu.library.callback.AnimUpdateListener}s.
+     *
+     * @return The progress, as a percentage of 1, or 0 if the animation has no end.
+     */
+    public float getProgress() {
+        return 0;
+    }
+}
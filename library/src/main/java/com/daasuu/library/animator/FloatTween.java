@@ -0,0 +1,78 @@
+package com.daasuu.library.animator;
+
+import android.support.annotation.NonNull;
+
+import com.daasuu.library.callback.AnimCallBack;
+import com.daasuu.library.easing.Ease;
+
+/**
+ * Tween of a single numeric value, written into a slot of a float array given by the caller.
+ * see {@link MultiFloatTween}
+ */
+public class FloatTween extends MultiFloatTween {
+
+    /**
+     * Constructor
+     *
+     * @param target  The array which the value is written into
+     * @param slot    The index of the slot in target
+     * @param initial The initial value
+     */
+    public FloatTween(@NonNull float[] target, int slot, float initial) {
+        super(target, slot, initial);
+    }
+
+    /**
+     * see {@link #to(long, float, Ease)}
+     *
+     * @param animDuration The duration of the tween in milliseconds
+     * @param value        The target value
+     * @return this
+     */
+    public FloatTween to(long animDuration, float value) {
+        return to(animDuration, value, Ease.LINEAR);
+    }
+
+    /**
+     * Queues a tween from the current value to the target value. Set duration to 0 to jump to the value.
+     *
+     * @param animDuration The duration of the tween in milliseconds
+     * @param value        The target value
+     * @param ease         The easing function to use for this tween.
+     * @return this
+     */
+    public FloatTween to(long animDuration, float value, @NonNull Ease ease) {
+        super.to(animDuration, ease, value);
+        return this;
+    }
+
+    @Override
+    public FloatTween waitTime(long animDuration) {
+        super.waitTime(animDuration);
+        return this;
+    }
+
+    @Override
+    public FloatTween call(AnimCallBack callBack) {
+        super.call(callBack);
+        return this;
+    }
+
+    @Override
+    public FloatTween repeat(int count) {
+        super.repeat(count);
+        return this;
+    }
+
+    @Override
+    public FloatTween yoyo(int count) {
+        super.yoyo(count);
+        return this;
+    }
+
+    @Override
+    public FloatTween timeScale(float timeScale) {
+        super.timeScale(timeScale);
+        return this;
+    }
+}
@@ -0,0 +1,434 @@
+package com.daasuu.library.animator;
+
+import android.support.annotation.NonNull;
+
+import com.daasuu.library.CallbackQueue;
+import com.daasuu.library.callback.AnimCallBack;
+import com.daasuu.library.easing.Ease;
+import com.daasuu.library.easing.EaseProvider;
+
+import java.util.Arrays;
+
+/**
+ * Tween of numeric values which have nothing to draw, such as a counter or a shader uniform.
+ * The values are written into the slots of a float array given by the caller, every frame of FPSTextureView or
+ * FPSSurfaceView which the tween is added to, so all tweens of a scene advance in one pass on the clock of the view.
+ * The tweens are evaluated from the elapsed time with {@link EaseProvider}, so nothing is baked.
+ * Repeat, yoyo, seek and the callbacks behave like those of {@link TweenAnimator}, but on time instead of baked parameters.
+ */
+public class MultiFloatTween {
+    private static final String TAG = MultiFloatTween.class.getSimpleName();
+
+    private final float[] mTarget;
+
+    private final int mOffset;
+
+    /**
+     * The number of values.
+     */
+    private final int mChannels;
+
+    /**
+     * The initial values followed by the values at the end of each tween, mChannels at a time.
+     */
+    private float[] mValues;
+
+    /**
+     * The end of each tween in milliseconds.
+     */
+    private long[] mEnds = new long[0];
+
+    private Ease[] mEases = new Ease[0];
+
+    /**
+     * The callback of each tween, or null. It is called when the playhead reaches the end of the tween,
+     * or the start of the tween while the playhead moves backward.
+     */
+    private AnimCallBack[] mCallBacks = new AnimCallBack[0];
+
+    private int mSegmentCount = 0;
+
+    /**
+     * The tween which the position was in last, so the tween at the next position is found in a few steps.
+     */
+    private int mSegment = 0;
+
+    private boolean mYoyo = false;
+
+    private int mRepeatCount = 0;
+
+    private int mPassesLeft = 0;
+
+    /**
+     * The direction of the playhead, 1 or -1.
+     */
+    private int mStep = 1;
+
+    /**
+     * The position in the current pass in milliseconds.
+     */
+    private double mPosition = 0;
+
+    /**
+     * If true, the callbacks at the start of the pass have not been called yet.
+     */
+    private boolean mPassStarted = false;
+
+    private volatile boolean mFinished = false;
+
+    private volatile boolean mPause = false;
+
+    private volatile float mTimeScale = 1f;
+
+    /**
+     * The position requested by {@link #seekTo(long)} in milliseconds, applied in the next frame, or -1.
+     */
+    private volatile long mSeekTime = -1;
+
+    private volatile SeekCallbackPolicy mSeekCallbackPolicy = SeekCallbackPolicy.SKIP;
+
+    /**
+     * The repeat requested by {@link #repeat(int)} or {@link #yoyo(int)}, applied in the next frame, or NO_REPEAT_REQUEST.
+     * The repeat count is in the upper bits and whether it is a yoyo is in the lowest bit, so both are applied together.
+     */
+    private volatile long mRepeatRequest = NO_REPEAT_REQUEST;
+
+    private static final long NO_REPEAT_REQUEST = Long.MIN_VALUE;
+
+    /**
+     * Constructor
+     *
+     * @param target  The array which the values are written into
+     * @param offset  The index of the first slot in target
+     * @param initial The initial values. Their number is the number of slots.
+     */
+    public MultiFloatTween(@NonNull float[] target, int offset, @NonNull float... initial) {
+        if (offset < 0 || offset + initial.length > target.length) {
+            throw new IllegalArgumentException("The slots are out of the target array.");
+        }
+        mTarget = target;
+        mOffset = offset;
+        mChannels = initial.length;
+        mValues = Arrays.copyOf(initial, initial.length * 4);
+        System.arraycopy(initial, 0, mTarget, mOffset, mChannels);
+    }
+
+    /**
+     * see {@link #to(long, Ease, float...)}
+     *
+     * @param animDuration The duration of the tween in milliseconds
+     * @param values       The target values, one for each slot
+     * @return this
+     */
+    public MultiFloatTween to(long animDuration, @NonNull float... values) {
+        return to(animDuration, Ease.LINEAR, values);
+    }
+
+    /**
+     * Queues a tween from the current values to the target values. Set duration to 0 to jump to these values.
+     *
+     * @param animDuration The duration of the tween in milliseconds
+     * @param ease         The easing function to use for this tween.
+     * @param values       The target values, one for each slot
+     * @return this
+     */
+    public MultiFloatTween to(long animDuration, @NonNull Ease ease, @NonNull float... values) {
+        if (values.length != mChannels) {
+            throw new IllegalArgumentException("The number of values must be " + mChannels + ".");
+        }
+        addSegment(animDuration, ease);
+        System.arraycopy(values, 0, mValues, mSegmentCount * mChannels, mChannels);
+        return this;
+    }
+
+    /**
+     * Queues a wait (essentially an empty tween).
+     *
+     * @param animDuration The duration of the wait in milliseconds
+     * @return this
+     */
+    public MultiFloatTween waitTime(long animDuration) {
+        addSegment(animDuration, Ease.NONE);
+        System.arraycopy(mValues, (mSegmentCount - 1) * mChannels, mValues, mSegmentCount * mChannels, mChannels);
+        return this;
+    }
+
+    /**
+     * Set queues an action to call the specified function at the end of the last queued tween.
+     *
+     * @param callBack callback The function to call.
+     * @return this
+     */
+    public MultiFloatTween call(AnimCallBack callBack) {
+        if (mSegmentCount > 0) {
+            mCallBacks[mSegmentCount - 1] = callBack;
+        }
+        return this;
+    }
+
+    /**
+     * Play the tweens the count times again after the first time, each time from the start. Replaces {@link #yoyo(int)}.
+     * It is applied in the next frame.
+     *
+     * @param count The number of repeats, or {@link TweenAnimator#REPEAT_INFINITE} to play for ever.
+     * @return this
+     */
+    public MultiFloatTween repeat(int count) {
+        requestRepeat(count < 0 ? TweenAnimator.REPEAT_INFINITE : count, false);
+        return this;
+    }
+
+    /**
+     * Play the tweens to the end and back the count times. It is applied in the next frame.
+     *
+     * @param count The number of round trips, or {@link TweenAnimator#REPEAT_INFINITE} to play for ever.
+     * @return this
+     */
+    public MultiFloatTween yoyo(int count) {
+        requestRepeat(count < 0 ? TweenAnimator.REPEAT_INFINITE : Math.max(0, count * 2 - 1), true);
+        return this;
+    }
+
+    private void requestRepeat(int repeatCount, boolean yoyo) {
+        mRepeatRequest = ((long) repeatCount << 1) | (yoyo ? 1 : 0);
+    }
+
+    /**
+     * Set the speed of the tween, which is multiplied by the time scale of the view. default 1.
+     *
+     * @param timeScale The speed, as a percentage of 1
+     * @return this
+     */
+    public MultiFloatTween timeScale(float timeScale) {
+        mTimeScale = Math.max(0f, timeScale);
+        return this;
+    }
+
+    private void addSegment(long animDuration, Ease ease) {
+        int index = mSegmentCount;
+        if (index == mEnds.length) {
+            int capacity = Math.max(4, index * 2);
+            mEnds = Arrays.copyOf(mEnds, capacity);
+            mEases = Arrays.copyOf(mEases, capacity);
+            mCallBacks = Arrays.copyOf(mCallBacks, capacity);
+        }
+        if ((index + 2) * mChannels > mValues.length) {
+            mValues = Arrays.copyOf(mValues, (index + 2) * 2 * mChannels);
+        }
+        mEnds[index] = (index == 0 ? 0 : mEnds[index - 1]) + Math.max(0, animDuration);
+        mEases[index] = ease;
+        mSegmentCount = index + 1;
+    }
+
+    /**
+     * Getter the sum of the durations of the tweens.
+     *
+     * @return duration in milliseconds
+     */
+    public long getDuration() {
+        return mSegmentCount == 0 ? 0 : mEnds[mSegmentCount - 1];
+    }
+
+    /**
+     * Move the playhead to the position. The values are written in the next frame. The callbacks which a seek
+     * in the direction of the pass jumps over are called only if the policy is {@link SeekCallbackPolicy#FIRE}.
+     *
+     * @param position The position in milliseconds, clamped to the duration
+     */
+    public void seekTo(long position) {
+        mSeekTime = Math.max(0, Math.min(position, getDuration()));
+    }
+
+    /**
+     * Set the policy for the callbacks which a forward seek jumps over. default {@link SeekCallbackPolicy#SKIP}.
+     *
+     * @param seekCallbackPolicy policy
+     */
+    public void setSeekCallbackPolicy(@NonNull SeekCallbackPolicy seekCallbackPolicy) {
+        mSeekCallbackPolicy = seekCallbackPolicy;
+    }
+
+    public void pause(boolean pause) {
+        mPause = pause;
+    }
+
+    public boolean isPause() {
+        return mPause;
+    }
+
+    /**
+     * Whether the last pass has reached its end, so the values will not change any more.
+     *
+     * @return true if finished
+     */
+    public boolean isFinished() {
+        return mFinished;
+    }
+
+    /**
+     * Rewind to the start, so the tweens and the callbacks are played again. It is applied in the next frame.
+     */
+    public void reset() {
+        mSeekTime = -2;
+    }
+
+    /**
+     * Advance the tweens, and write the values into the slots. This is called every frame by FPSTextureView or FPSSurfaceView
+     * which the tween is added to.
+     *
+     * @param elapsedTime The time since the last frame in milliseconds
+     */
+    public void tick(double elapsedTime) {
+        if (mSegmentCount == 0) {
+            return;
+        }
+
+        long repeatRequest = mRepeatRequest;
+        if (repeatRequest != NO_REPEAT_REQUEST) {
+            mRepeatRequest = NO_REPEAT_REQUEST;
+            mYoyo = (repeatRequest & 1) != 0;
+            mRepeatCount = (int) (repeatRequest >> 1);
+            mPassesLeft = mRepeatCount;
+        }
+
+        long seekTime = mSeekTime;
+        if (seekTime != -1) {
+            mSeekTime = -1;
+            if (seekTime == -2) {
+                rewind();
+            } else {
+                double from = mPassStarted ? mPosition : mStep > 0 ? -1 : getDuration() + 1;
+                if (mSeekCallbackPolicy == SeekCallbackPolicy.FIRE && (seekTime - from) * mStep > 0) {
+                    dispatchCallbacks(from, seekTime);
+                }
+                mPosition = seekTime;
+                mPassStarted = true;
+                mFinished = false;
+            }
+            apply();
+            return;
+        }
+
+        if (mPause || mFinished) {
+            return;
+        }
+
+        double remaining = elapsedTime * mTimeScale;
+        long duration = getDuration();
+        if (!mPassStarted) {
+            mPassStarted = true;
+            dispatchCallbacks(mStep > 0 ? -1 : duration + 1, mPosition);
+        }
+        while (remaining > 0 && !mFinished) {
+            double end = mStep > 0 ? duration : 0;
+            double move = Math.min(remaining, Math.abs(end - mPosition));
+            double next = mPosition + move * mStep;
+            dispatchCallbacks(mPosition, next);
+            mPosition = next;
+            remaining -= move;
+            if (mPosition != end) {
+                break;
+            }
+            if (mPassesLeft == 0 || duration == 0) {
+                mFinished = true;
+                break;
+            }
+            if (mPassesLeft > 0) {
+                mPassesLeft--;
+            }
+            if (mYoyo) {
+                mStep = -mStep;
+            } else {
+                // wrap around
+                mPosition = mStep > 0 ? 0 : duration;
+                dispatchCallbacks(mStep > 0 ? -1 : duration + 1, mPosition);
+            }
+        }
+        apply();
+    }
+
+    private void rewind() {
+        mPosition = 0;
+        mStep = 1;
+        mPassesLeft = mRepeatCount;
+        mPassStarted = false;
+        mFinished = false;
+        mSegment = 0;
+    }
+
+    /**
+     * Call the callbacks of the tweens which the playhead has crossed between the positions.
+     * Moving forward, a tween is crossed at its end. Moving backward, it is crossed at its start.
+     * The first tween crossed is found by binary search, so only the tweens crossed in a frame are visited.
+     */
+    private void dispatchCallbacks(double from, double to) {
+        if (to > from) {
+            for (int i = firstEndAfter(from, false); i < mSegmentCount && mEnds[i] <= to; i++) {
+                dispatch(mCallBacks[i]);
+            }
+        } else if (to < from) {
+            // the tweens up to the first one ending at or after from start before from
+            for (int i = Math.min(firstEndAfter(from, true), mSegmentCount - 1); i >= 0; i--) {
+                long start = i == 0 ? 0 : mEnds[i - 1];
+                if (start < to) {
+                    break;
+                }
+                if (start < from) {
+                    dispatch(mCallBacks[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the index of the first tween which ends after the position, or at the position if inclusive,
+     * or the number of tweens if there is none.
+     */
+    private int firstEndAfter(double position, boolean inclusive) {
+        int low = 0;
+        int high = mSegmentCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mEnds[mid] < position || (!inclusive && mEnds[mid] == position)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void dispatch(AnimCallBack callBack) {
+        if (callBack != null) {
+            CallbackQueue.dispatch(callBack);
+        }
+    }
+
+    /**
+     * Write the values at the position into the slots.
+     */
+    private void apply() {
+        double position = mPosition;
+        int segment = mSegment;
+        while (segment > 0 && mEnds[segment - 1] > position) {
+            segment--;
+        }
+        while (segment < mSegmentCount - 1 && mEnds[segment] <= position) {
+            segment++;
+        }
+        mSegment = segment;
+
+        long start = segment == 0 ? 0 : mEnds[segment - 1];
+        long duration = mEnds[segment] - start;
+        float elapsedTimeRate = duration == 0 ? 1f : (float) Math.min(1.0, (position - start) / duration);
+        // the same easing as the baked parameters of TweenAnimator
+        float rate = elapsedTimeRate * EaseProvider.get(mEases[segment], elapsedTimeRate);
+
+        int from = segment * mChannels;
+        int to = from + mChannels;
+        for (int i = 0; i < mChannels; i++) {
+            float before = mValues[from + i];
+            mTarget[mOffset + i] = before + (mValues[to + i] - before) * rate;
+        }
+    }
+}
@@ -3,8 +3,8 @@ package com.daasuu.library.animator;
 import android.graphics.Canvas;
 import android.support.annotation.NonNull;
 
-import com.daasuu.library.Animator;
 import com.daasuu.library.AnimParameter;
+import com.daasuu.library.CallbackQueue;
 import com.daasuu.library.DisplayBase;
 import com.daasuu.library.callback.AnimCallBack;
 import com.daasuu.library.constant.Constant;
@@ -12,7 +12,7 @@ import com.daasuu.library.constant.Constant;
 /**
  * Class for heavy acceleration motion
  */
-public class ParabolicAnimator implements Animator {
+public class ParabolicAnimator extends BaseAnimator {
     private static final String TAG = ParabolicAnimator.class.getSimpleName();
 
     private int mDrawingNum = Constant.DEFAULT_DRAWING_NUM;
@@ -49,6 +49,11 @@ public class ParabolicAnimator implements Animator {
      */
     private float mAccelerationX = Constant.DEFAULT_ACCELERATION_X;
 
+    /**
+     * mAccelerationX as composed. mAccelerationX is reversed and attenuated by rebounds.
+     */
+    private final float mInitialAccelerationX;
+
     /**
      * For example, if a ParabolicMotion with a frequency of 10 is placed on a Stage being updated at 40fps,
      * then the ParabolicMotion will advance roughly one frame every 4 ticks. This will not be exact,
@@ -105,7 +110,12 @@ public class ParabolicAnimator implements Animator {
     /**
      * indicates whether to start the parabolicMotion paused.
      */
-    private boolean mParabolicMotionPause = false;
+    private volatile boolean mParabolicMotionPause = false;
+
+    /**
+     * The length of a step of the motion, as a percentage of 1.
+     */
+    private float mTimeScale = 1f;
 
     /**
      * create composer instance.
@@ -127,6 +137,7 @@ public class ParabolicAnimator implements Animator {
         this.mInitialVelocityY = mInitialVelocityY;
         this.mAccelerationY = mAccelerationY;
         this.mAccelerationX = mAccelerationX;
+        this.mInitialAccelerationX = mAccelerationX;
         this.mFrequency = mFrequency;
         this.mBottomBase = mBottomBase;
         this.mRightSide = mRightSide;
@@ -154,6 +165,16 @@ public class ParabolicAnimator implements Animator {
         }
     }
 
+    @Override
+    public boolean isBaseLineRequiredEveryFrame() {
+        return false;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return false;
+    }
+
     @Override
     public void pause(boolean pause) {
         mParabolicMotionPause = pause;
@@ -175,18 +196,19 @@ public class ParabolicAnimator implements Animator {
 
         if (mParabolicMotionPause) return;
 
-        mMovementY += mAccelerationY;
+        float timeScale = mTimeScale;
+        mMovementY += mAccelerationY * timeScale;
 
         float y = position.y;
         float x = position.x;
 
-        y += mMovementY;
-        x += mAccelerationX;
+        y += mMovementY * timeScale;
+        x += mAccelerationX * timeScale;
 
         if (y > mBottomBase) {
 
             if (mBottomHitCallback != null) {
-                mBottomHitCallback.call();
+                CallbackQueue.dispatch(mBottomHitCallback);
             }
 
             if (mReboundBottom) {
@@ -197,7 +219,7 @@ public class ParabolicAnimator implements Animator {
 
         if (x > mRightSide) {
             if (mRightHitCallback != null) {
-                mRightHitCallback.call();
+                CallbackQueue.dispatch(mRightHitCallback);
             }
 
             if (mReboundRight) {
@@ -209,7 +231,7 @@ public class ParabolicAnimator implements Animator {
 
         if (x < mLeftSide) {
             if (mLeftHitCallback != null) {
-                mLeftHitCallback.call();
+                CallbackQueue.dispatch(mLeftHitCallback);
             }
 
             if (mReboundLeft) {
@@ -228,6 +250,24 @@ public class ParabolicAnimator implements Animator {
         this.mMovementY = mInitialVelocityY;
     }
 
+    @Override
+    public void reset() {
+        mDrawingNum = Constant.DEFAULT_DRAWING_NUM;
+        mMovementY = mInitialVelocityY;
+        mAccelerationX = mInitialAccelerationX;
+        mParabolicMotionPause = false;
+    }
+
+    @Override
+    public void setTimeScale(float timeScale) {
+        mTimeScale = timeScale;
+    }
+
+    @Override
+    public float getProgress() {
+        return 0;
+    }
+
     /**
      * Builder for {@link ParabolicAnimator}
      */
@@ -270,7 +310,6 @@ public class ParabolicAnimator implements Animator {
          * By one tick, the number to accelerate (x position) in pixels
          */
         private float mAccelerationX = Constant.DEFAULT_ACCELERATION_X;
-
         /**
          * For example, if a ParabolicMotion with a frequency of 10 is placed on a Stage being updated at 40fps,
          * then the ParabolicMotion will advance roughly one frame every 4 ticks. This will not be exact,
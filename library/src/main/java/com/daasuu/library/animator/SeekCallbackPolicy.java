@@ -0,0 +1,19 @@
+package com.daasuu.library.animator;
+
+/**
+ * Policy for the {@link TweenAnimator.Composer#call(com.daasuu.library.callback.AnimCallBack)} callbacks
+ * of the tweens which a forward seek jumps over.
+ * After a backward seek, the callbacks after the new position are always called again when they are reached.
+ */
+public enum SeekCallbackPolicy {
+
+    /**
+     * The callbacks jumped over are called in order in the frame the seek is applied.
+     */
+    FIRE,
+
+    /**
+     * The callbacks jumped over are not called.
+     */
+    SKIP
+}
@@ -0,0 +1,282 @@
+package com.daasuu.library.animator;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A Timeline owns a clock shared by a group of tweens and nested timelines, each starting at an offset in milliseconds.
+ * Tweens are added by {@link TweenAnimator.Composer#timeline(Timeline, long)}, and read the position of the timeline
+ * when they are drawn, so all members move in exactly the same frame, and seeking costs the same however many members there are.
+ * Members which have finished simply stay at their last frame.
+ * Add a root timeline to FPSTextureView or FPSSurfaceView to advance its clock every frame.
+ */
+public class Timeline {
+    private static final String TAG = Timeline.class.getSimpleName();
+
+    /**
+     * The parent timeline, or null if this is a root timeline.
+     */
+    private Timeline mParent;
+
+    /**
+     * The start of this timeline on the parent in milliseconds.
+     */
+    private long mOffset;
+
+    /**
+     * The end of the last member in milliseconds.
+     */
+    private long mDuration = 0;
+
+    /**
+     * The position of the clock of a root timeline in milliseconds.
+     */
+    private volatile double mPosition = 0;
+
+    private volatile boolean mPlaying = true;
+
+    private volatile boolean mReversed = false;
+
+    /**
+     * Labels sorted by position, so the label at a position is found by binary search.
+     */
+    private long[] mLabelPositions = new long[0];
+
+    private String[] mLabels = new String[0];
+
+    /**
+     * Add a nested timeline. Its members are offset by the offset, and it is driven by the clock of this timeline.
+     *
+     * @param timeline timeline which is not added to another timeline
+     * @param offset   The start of the nested timeline in milliseconds
+     * @return this
+     */
+    public Timeline add(@NonNull Timeline timeline, long offset) {
+        timeline.mParent = this;
+        timeline.mOffset = offset;
+        extendDuration(offset + timeline.mDuration);
+        return this;
+    }
+
+    /**
+     * Called from {@link TweenAnimator.Composer#end()}.
+     *
+     * @param offset   The start of the tween in milliseconds
+     * @param duration The duration of the tween in milliseconds
+     */
+    void addTween(long offset, long duration) {
+        extendDuration(offset + duration);
+    }
+
+    private synchronized void extendDuration(long end) {
+        if (end <= mDuration) {
+            return;
+        }
+        mDuration = end;
+        if (mParent != null) {
+            mParent.extendDuration(mOffset + end);
+        }
+    }
+
+    /**
+     * Add a label at the position. A label with the same name is moved.
+     *
+     * @param label    name of the label
+     * @param position The position in milliseconds
+     * @return this
+     */
+    public synchronized Timeline addLabel(@NonNull String label, long position) {
+        removeLabel(label);
+        int index = Arrays.binarySearch(mLabelPositions, position);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // after the labels at the same position
+            while (index < mLabelPositions.length && mLabelPositions[index] == position) {
+                index++;
+            }
+        }
+
+        long[] positions = new long[mLabelPositions.length + 1];
+        String[] labels = new String[mLabels.length + 1];
+        System.arraycopy(mLabelPositions, 0, positions, 0, index);
+        System.arraycopy(mLabels, 0, labels, 0, index);
+        positions[index] = position;
+        labels[index] = label;
+        System.arraycopy(mLabelPositions, index, positions, index + 1, mLabelPositions.length - index);
+        System.arraycopy(mLabels, index, labels, index + 1, mLabels.length - index);
+        mLabelPositions = positions;
+        mLabels = labels;
+        return this;
+    }
+
+    private void removeLabel(String label) {
+        for (int i = 0; i < mLabels.length; i++) {
+            if (!mLabels[i].equals(label)) {
+                continue;
+            }
+            long[] positions = new long[mLabelPositions.length - 1];
+            String[] labels = new String[mLabels.length - 1];
+            System.arraycopy(mLabelPositions, 0, positions, 0, i);
+            System.arraycopy(mLabels, 0, labels, 0, i);
+            System.arraycopy(mLabelPositions, i + 1, positions, i, positions.length - i);
+            System.arraycopy(mLabels, i + 1, labels, i, labels.length - i);
+            mLabelPositions = positions;
+            mLabels = labels;
+            return;
+        }
+    }
+
+    /**
+     * Getter the position of the label.
+     *
+     * @param label name of the label
+     * @return The position in milliseconds, or -1 if there is no such label
+     */
+    public synchronized long getLabelPosition(@NonNull String label) {
+        for (int i = 0; i < mLabels.length; i++) {
+            if (mLabels[i].equals(label)) {
+                return mLabelPositions[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Getter the last label at or before the current position.
+     *
+     * @return name of the label, or null if there is none
+     */
+    @Nullable
+    public synchronized String getCurrentLabel() {
+        long position = (long) getPosition();
+        int index = Arrays.binarySearch(mLabelPositions, position);
+        if (index < 0) {
+            index = -index - 2;
+        } else {
+            while (index + 1 < mLabelPositions.length && mLabelPositions[index + 1] == position) {
+                index++;
+            }
+        }
+        return index < 0 ? null : mLabels[index];
+    }
+
+    /**
+     * Move the clock to the position. The members are evaluated at the position when they are drawn next.
+     * A nested timeline follows its parent, so seeking it has no effect.
+     *
+     * @param position The position in milliseconds, clamped to the duration
+     */
+    public void seek(long position) {
+        mPosition = Math.max(0, Math.min(position, getDuration()));
+    }
+
+    /**
+     * Move the clock to the label.
+     *
+     * @param label name of the label
+     */
+    public void seek(@NonNull String label) {
+        long position = getLabelPosition(label);
+        if (position >= 0) {
+            seek(position);
+        }
+    }
+
+    /**
+     * Start or resume the clock.
+     */
+    public void play() {
+        mPlaying = true;
+    }
+
+    /**
+     * Pause the clock. The members stay at the current position.
+     */
+    public void pause() {
+        mPlaying = false;
+    }
+
+    public boolean isPlaying() {
+        return mPlaying;
+    }
+
+    /**
+     * Reverse the direction of the clock.
+     */
+    public void reverse() {
+        mReversed = !mReversed;
+    }
+
+    /**
+     * Setter the direction of the clock.
+     *
+     * @param reversed If true, the clock runs backward to 0.
+     */
+    public void setReversed(boolean reversed) {
+        mReversed = reversed;
+    }
+
+    public boolean isReversed() {
+        return mReversed;
+    }
+
+    /**
+     * Getter the end of the last member.
+     *
+     * @return duration in milliseconds
+     */
+    public synchronized long getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * Getter the position of the clock. A nested timeline returns the position of the parent minus its offset.
+     *
+     * @return The position in milliseconds
+     */
+    public double getPosition() {
+        if (mParent == null) {
+            return mPosition;
+        }
+        return Math.max(0, Math.min(mParent.getPosition() - mOffset, getDuration()));
+    }
+
+    /**
+     * Whether the clock has reached the end in the direction it runs. A nested timeline follows its parent.
+     *
+     * @return true if complete
+     */
+    public boolean isComplete() {
+        if (mParent != null) {
+            return mParent.isComplete();
+        }
+        return mReversed ? mPosition <= 0 : mPosition >= getDuration();
+    }
+
+    /**
+     * Whether the clock runs backward. A nested timeline follows its parent.
+     */
+    boolean isRunningBackward() {
+        if (mParent != null) {
+            return mParent.isRunningBackward();
+        }
+        return mReversed;
+    }
+
+    /**
+     * Advance the clock of a root timeline. This is called every frame by FPSTextureView or FPSSurfaceView
+     * which the timeline is added to.
+     *
+     * @param elapsedTime The time since the last frame in milliseconds
+     */
+    public void tick(double elapsedTime) {
+        if (mParent != null || !mPlaying || elapsedTime <= 0) {
+            return;
+        }
+        double position = mPosition + (mReversed ? -elapsedTime : elapsedTime);
+        mPosition = Math.max(0, Math.min(position, getDuration()));
+    }
+}
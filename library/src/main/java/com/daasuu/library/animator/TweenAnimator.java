@@ -2,9 +2,10 @@ package com.daasuu.library.animator;
 
 import android.graphics.Canvas;
 import android.graphics.PointF;
+import android.support.annotation.NonNull;
 
 import com.daasuu.library.AnimParameter;
-import com.daasuu.library.Animator;
+import com.daasuu.library.CallbackQueue;
 import com.daasuu.library.DisplayBase;
 import com.daasuu.library.callback.AnimCallBack;
 import com.daasuu.library.constant.Constant;
@@ -13,25 +14,60 @@ import com.daasuu.library.easing.EaseProvider;
 import com.daasuu.library.util.Util;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Class for tween animation
  */
-public class TweenAnimator implements Animator {
+public class TweenAnimator extends BaseAnimator {
     private static final String TAG = TweenAnimator.class.getSimpleName();
 
     /**
-     * If true, the tween will loop when it reaches the end. Can be set via the props param.
+     * Pass {@link Composer#repeat(int)} or {@link Composer#yoyo(int)} to play for ever.
      */
-    private boolean mTweenLoop = false;
+    public static final int REPEAT_INFINITE = -1;
+
+    /**
+     * If true, the first pass walks the baked parameters from the last one to the first one.
+     */
+    private final boolean mReverse;
+
+    /**
+     * If true, the direction turns at each end instead of wrapping around to the other end.
+     */
+    private final boolean mYoyo;
+
+    /**
+     * The number of passes after the first pass, or {@link #REPEAT_INFINITE}.
+     */
+    private final int mRepeatCount;
+
+    /**
+     * The number of passes left, or {@link #REPEAT_INFINITE}.
+     */
+    private int mPassesLeft;
+
+    /**
+     * The direction of the playhead, 1 or -1.
+     */
+    private int mStep;
 
     /**
      * indicates whether to start the tween paused.
      */
-    private boolean mTweenPause = false;
+    private volatile boolean mTweenPause = false;
+
+    /**
+     * The number of baked parameters the playhead moves per frame.
+     */
+    private float mTimeScale = 1f;
+
+    /**
+     * The fraction of a baked parameter which the playhead has not moved yet.
+     */
+    private float mFrameRemainder = 0;
 
     private AnimParameter mInitialParam;
 
@@ -46,18 +82,127 @@ public class TweenAnimator implements Animator {
 
     protected final List<TweenParameter> mTweenParameters;
 
-    private final Map<AnimParameter, AnimCallBack> mCallbacks;
+    /**
+     * The index of the last baked parameter of each tween in mAnimParameters.
+     */
+    private int[] mTweenEnds = new int[0];
+
+    /**
+     * The start of each tween in milliseconds.
+     */
+    private final long[] mTweenStartTimes;
+
+    /**
+     * The callback of each tween, or null. It is called when the playhead reaches the end of the tween,
+     * or the start of the tween while the playhead moves backward.
+     */
+    private AnimCallBack[] mTweenCallbacks = new AnimCallBack[0];
+
+    /**
+     * The times of the timed callbacks in milliseconds, sorted.
+     */
+    private final long[] mEventTimes;
+
+    /**
+     * The index of the baked parameter at each of mEventTimes.
+     */
+    private int[] mEventPositions = new int[0];
+
+    /**
+     * The timed callbacks in the order of mEventTimes. They are called when the playhead crosses their position in either direction.
+     */
+    private final AnimCallBack[] mEventCallbacks;
+
+    /**
+     * The number of timed callbacks at or before mCallbackPosition, so only the callbacks crossed in a frame are visited.
+     */
+    private int mEventCursor = 0;
+
+    private final String[] mMarkerNames;
+
+    /**
+     * The positions of mMarkerNames in milliseconds.
+     */
+    private final long[] mMarkerTimes;
+
+    /**
+     * The position which the callbacks have been dispatched up to.
+     */
+    private int mCallbackPosition = -1;
+
+    /**
+     * The timeline which drives the playhead instead of the frame count, or null.
+     */
+    private final Timeline mTimeline;
+
+    /**
+     * The start of this tween on mTimeline in milliseconds.
+     */
+    private final long mTimelineOffset;
+
+    /**
+     * The position on this tween which mDrawCount was evaluated at, clamped to the duration, or -1.
+     */
+    private double mTimelinePosition = -1;
+
+    /**
+     * The position requested by {@link #seekTo(long)} in milliseconds, applied in the next frame, or -1.
+     */
+    private volatile long mSeekTime = -1;
+
+    private volatile SeekCallbackPolicy mSeekCallbackPolicy = SeekCallbackPolicy.SKIP;
+
+    /**
+     * The sum of the durations of the tweens in milliseconds.
+     */
+    private final long mDuration;
+
+    /**
+     * The frame interval which mAnimParameters was baked with, or -1 if not baked yet.
+     */
+    private long mBakedFps = -1;
 
     public static Composer composer(DisplayBase DisplayBase) {
         return new Composer(DisplayBase);
     }
 
-    private TweenAnimator(boolean tweenLoop, AnimParameter initialParam, List<TweenParameter> tweenParameters) {
-        this.mTweenLoop = tweenLoop;
-        this.mInitialParam = initialParam;
-        mTweenParameters = tweenParameters;
+    private TweenAnimator(Composer composer) {
+        this.mInitialParam = composer.mInitialParam;
+        mTweenParameters = composer.mTweenParameterList;
         mAnimParameters = new ArrayList<>();
-        mCallbacks = new HashMap<>();
+        mTimeline = composer.mTimeline;
+        mTimelineOffset = composer.mTimelineOffset;
+        mReverse = composer.mReverse;
+        mYoyo = composer.mYoyo;
+        mRepeatCount = composer.mRepeatCount;
+        mPassesLeft = mRepeatCount;
+        mStep = mReverse ? -1 : 1;
+        mDuration = sumDuration(mTweenParameters);
+        mTweenStartTimes = new long[mTweenParameters.size()];
+        for (int i = 1; i < mTweenStartTimes.length; i++) {
+            mTweenStartTimes[i] = mTweenStartTimes[i - 1] + mTweenParameters.get(i - 1).animDuration;
+        }
+
+        List<TimedCallBack> timedCallBacks = composer.mTimedCallBacks;
+        // stable, so callbacks at the same time are called in the order they were composed
+        Collections.sort(timedCallBacks, new Comparator<TimedCallBack>() {
+            @Override
+            public int compare(TimedCallBack lhs, TimedCallBack rhs) {
+                return lhs.position < rhs.position ? -1 : (lhs.position == rhs.position ? 0 : 1);
+            }
+        });
+        mEventTimes = new long[timedCallBacks.size()];
+        mEventCallbacks = new AnimCallBack[timedCallBacks.size()];
+        for (int i = 0; i < mEventTimes.length; i++) {
+            mEventTimes[i] = timedCallBacks.get(i).position;
+            mEventCallbacks[i] = timedCallBacks.get(i).callBack;
+        }
+
+        mMarkerNames = composer.mMarkerNames.toArray(new String[composer.mMarkerNames.size()]);
+        mMarkerTimes = new long[mMarkerNames.length];
+        for (int i = 0; i < mMarkerTimes.length; i++) {
+            mMarkerTimes[i] = composer.mMarkerTimes.get(i);
+        }
     }
 
     @Override
@@ -71,17 +216,96 @@ public class TweenAnimator implements Animator {
         parameter.scaleY = nextParam.scaleY;
         parameter.rotation = nextParam.rotation;
 
-        // run callback. delete callback if tween animation will not be loop.
-        AnimCallBack callBack;
-        synchronized (this) {
-            callBack = mCallbacks.get(nextParam);
-            if (!mTweenLoop) {
-                mCallbacks.remove(nextParam);
+        if (mDrawCount >= 0) {
+            dispatchCallbacks(mDrawCount);
+        }
+    }
+
+    /**
+     * Call the callbacks which the playhead has crossed since mCallbackPosition, in the order they are crossed,
+     * and move mCallbackPosition to the position. Moving forward, a tween is crossed at its end. Moving backward,
+     * it is crossed at its start. A timed callback is crossed at its position in either direction.
+     * Each callback is called once per pass even if frames are skipped.
+     */
+    private void dispatchCallbacks(int to) {
+        int from = mCallbackPosition;
+        int[] ends = mTweenEnds;
+        AnimCallBack[] callBacks = mTweenCallbacks;
+        int[] events = mEventPositions;
+        int cursor = mEventCursor;
+        if (to > from) {
+            int i = firstAtOrAfter(ends, from + 1);
+            while (true) {
+                boolean tween = i < ends.length && ends[i] <= to;
+                boolean event = cursor < events.length && events[cursor] <= to;
+                if (!tween && !event) {
+                    break;
+                }
+                if (tween && (!event || ends[i] <= events[cursor])) {
+                    dispatch(callBacks[i++]);
+                } else {
+                    dispatch(mEventCallbacks[cursor++]);
+                }
+            }
+        } else if (to < from) {
+            int i = Math.min(firstAtOrAfter(ends, from - 1), ends.length - 1);
+            while (true) {
+                int start = i <= 0 ? 0 : ends[i - 1] + 1;
+                boolean tween = i >= 0 && start >= to;
+                boolean event = cursor > 0 && events[cursor - 1] >= to;
+                if (!tween && !event) {
+                    break;
+                }
+                if (tween && (!event || start >= events[cursor - 1])) {
+                    if (start < from) {
+                        dispatch(callBacks[i]);
+                    }
+                    i--;
+                } else {
+                    cursor--;
+                    if (events[cursor] < from) {
+                        dispatch(mEventCallbacks[cursor]);
+                    }
+                }
+            }
+            // the callbacks at the position itself have been called
+            while (cursor < events.length && events[cursor] <= to) {
+                cursor++;
             }
         }
+        mEventCursor = cursor;
+        mCallbackPosition = to;
+    }
+
+    /**
+     * Move mCallbackPosition without calling the callbacks.
+     */
+    private void setCallbackPosition(int position) {
+        mCallbackPosition = position;
+        mEventCursor = firstAtOrAfter(mEventPositions, position + 1);
+    }
+
+    private static void dispatch(AnimCallBack callBack) {
         if (callBack != null) {
-            callBack.call();
+            CallbackQueue.dispatch(callBack);
+        }
+    }
+
+    /**
+     * Return the index of the first element at or after the position in the sorted array, or the length if there is none.
+     */
+    private static int firstAtOrAfter(int[] positions, int position) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (positions[mid] < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
         }
+        return low;
     }
 
     @Override
@@ -89,25 +313,91 @@ public class TweenAnimator implements Animator {
         // Do nothing
     }
 
+    @Override
+    public boolean isBaseLineRequiredEveryFrame() {
+        return false;
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (mTimeline != null) {
+            // the range of this tween on the timeline has been passed in the direction the clock runs
+            double position = mTimeline.getPosition() - mTimelineOffset;
+            return mTimeline.isRunningBackward() ? position <= 0 : position >= getDuration();
+        }
+        return mPassesLeft == 0 && mDrawCount >= 0 && mDrawCount == lastIndex();
+    }
+
+    /**
+     * Return the index where the current pass ends.
+     */
+    private int lastIndex() {
+        return mStep > 0 ? mAnimParameters.size() - 1 : 0;
+    }
+
     @Override
     public AnimParameter getInitialAnimParameter() {
         return mInitialParam;
     }
 
+    /**
+     * Bake the tweens. They are baked again only when the fps has been changed, so re-adding a pooled
+     * display object allocates nothing. Reverse, yoyo and repeat walk the same baked parameters.
+     */
     @Override
     public void setUp(long fps) {
         mFps = 1000 / fps;
+        if (mFps == mBakedFps) {
+            return;
+        }
+        long previousFps = mBakedFps;
+        mBakedFps = mFps;
+        mTimelinePosition = -1;
         mAnimParameters.clear();
-        mCallbacks.clear();
+        int[] ends = new int[mTweenParameters.size()];
+        AnimCallBack[] callBacks = new AnimCallBack[ends.length];
         for (int i = 0, n = mTweenParameters.size(); i < n; i++) {
             TweenParameter tp = mTweenParameters.get(i);
             // set anim parameter
             mAnimParameters.addAll(createAnimParamList(tp, i));
-            // set callback
-            if (tp.callBack != null) {
-                mCallbacks.put(mAnimParameters.get(mAnimParameters.size() - 1), tp.callBack);
-            }
+            ends[i] = mAnimParameters.size() - 1;
+            callBacks[i] = tp.callBack;
+        }
+        mTweenCallbacks = callBacks;
+        mTweenEnds = ends;
+        int[] events = new int[mEventTimes.length];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = indexOf(mEventTimes[i]);
         }
+        mEventPositions = events;
+        mEventCursor = 0;
+        if (mDrawCount >= 0 && previousFps > 0) {
+            // keep the time of the playhead
+            mDrawCount = indexOf(mDrawCount * previousFps);
+            setCallbackPosition(mDrawCount);
+        }
+    }
+
+    /**
+     * Rewind to the first frame, so the callbacks are called again.
+     */
+    @Override
+    public void reset() {
+        mSeekTime = -1;
+        mDrawCount = -1;
+        mTweenPause = false;
+        mPassesLeft = mRepeatCount;
+        mStep = mReverse ? -1 : 1;
+        mFrameRemainder = 0;
+    }
+
+    /**
+     * The playhead moves by the fraction of a baked parameter per frame, so nothing is baked again.
+     * A tween driven by a {@link Timeline} follows the time scale of the view instead.
+     */
+    @Override
+    public void setTimeScale(float timeScale) {
+        mTimeScale = timeScale;
     }
 
     @Override
@@ -123,24 +413,236 @@ public class TweenAnimator implements Animator {
     protected AnimParameter getNextAnimParameter() {
         if (mAnimParameters.size() == 0) return mInitialParam;
 
+        if (mTimeline != null) {
+            return getAnimParameterOnTimeline();
+        }
+
+        long seekTime = mSeekTime;
+        if (seekTime >= 0) {
+            mSeekTime = -1;
+            if (mDrawCount < 0) start();
+            applySeek(indexOf(seekTime));
+            return mAnimParameters.get(mDrawCount);
+        }
+
+        if (mDrawCount < 0) {
+            start();
+            return mAnimParameters.get(mDrawCount);
+        }
+
         if (mTweenPause) {
-            if (mDrawCount == -1) mDrawCount = 0;
+            return mAnimParameters.get(mDrawCount);
+        }
+
+        // the baked parameters are walked mTimeScale at a time, carrying the fraction to the next frame
+        mFrameRemainder += mTimeScale;
+        int frames = (int) mFrameRemainder;
+        mFrameRemainder -= frames;
+        for (int i = 0; i < frames; i++) {
+            if (!step()) {
+                mFrameRemainder = 0;
+                break;
+            }
+        }
+
+        return mAnimParameters.get(mDrawCount);
+    }
+
+    /**
+     * Move the playhead by a baked parameter.
+     *
+     * @return false if the playhead is at the end of the last pass
+     */
+    private boolean step() {
+        int next = mDrawCount + mStep;
+        if (next < 0 || next >= mAnimParameters.size()) {
+            if (mPassesLeft == 0) {
+                return false;
+            }
+            if (mPassesLeft > 0) {
+                mPassesLeft--;
+            }
+            // the callbacks of the pass which were jumped over
+            dispatchCallbacks(mDrawCount);
+            if (mYoyo) {
+                // turn at the end without drawing it twice
+                mStep = -mStep;
+                next = Math.max(0, Math.min(mDrawCount + mStep, mAnimParameters.size() - 1));
+            } else {
+                // wrap around
+                next = mStep > 0 ? 0 : mAnimParameters.size() - 1;
+                setCallbackPosition(next - mStep);
+            }
+        }
+        mDrawCount = next;
+        return true;
+    }
+
+    /**
+     * Place the playhead at the first parameter of the pass in the first frame.
+     */
+    private void start() {
+        mDrawCount = mStep > 0 ? 0 : mAnimParameters.size() - 1;
+        setCallbackPosition(mDrawCount - mStep);
+    }
 
+    /**
+     * Return the baked parameter at the position of the timeline.
+     */
+    private AnimParameter getAnimParameterOnTimeline() {
+        double position = Math.max(0, Math.min(mTimeline.getPosition() - mTimelineOffset, mDuration));
+        if (mDrawCount >= 0 && position == mTimelinePosition) {
+            // the playhead has not moved on this tween, for example it is outside the range of this tween
             return mAnimParameters.get(mDrawCount);
         }
+        mTimelinePosition = position;
+        int index = indexOf(position);
+        if (mDrawCount == -1) {
+            setCallbackPosition(-1);
+        }
+        mDrawCount = index;
+        return mAnimParameters.get(index);
+    }
 
-        mDrawCount++;
+    /**
+     * Move the playhead to the baked parameter. The callbacks which a seek in the direction of the pass jumps over are called
+     * after this, unless the policy is {@link SeekCallbackPolicy#SKIP}.
+     */
+    private void applySeek(int index) {
+        boolean ahead = (index - mDrawCount) * mStep > 0;
+        if (!ahead || mSeekCallbackPolicy == SeekCallbackPolicy.SKIP) {
+            setCallbackPosition(index);
+        }
+        mDrawCount = index;
+    }
 
-        if (mAnimParameters.size() <= mDrawCount) {
-            if (mTweenLoop) {
-                mDrawCount = 0;
+    /**
+     * Return the index of the baked parameter at the position, clamped to the baked parameters.
+     */
+    private int indexOf(double position) {
+        long[] starts = mTweenStartTimes;
+        if (position <= 0 || starts.length == 0) {
+            return 0;
+        }
+        // the tween at the position, since each tween is baked to a whole number of parameters
+        int low = 0;
+        int high = starts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= position) {
+                low = mid;
             } else {
-                mDrawCount = mAnimParameters.size();
-                return mAnimParameters.get(mDrawCount - 1);
+                high = mid - 1;
             }
         }
+        int first = low == 0 ? 0 : mTweenEnds[low - 1] + 1;
+        int index = first + (int) Math.min((position - starts[low]) / mFps, mTweenEnds[low] - first);
+        return Math.min(index, mAnimParameters.size() - 1);
+    }
 
-        return mAnimParameters.get(mDrawCount);
+    /**
+     * Move the playhead to the position. It is evaluated from the baked parameters in the next frame without replaying them,
+     * and the tween continues from there unless it is paused. This has no effect on a tween driven by a {@link Timeline}.
+     *
+     * @param position The position in milliseconds, clamped to the duration
+     */
+    public void seekTo(long position) {
+        mSeekTime = Math.max(0, Math.min(position, mDuration));
+    }
+
+    /**
+     * Move the playhead to the marker. see {@link #seekTo(long)}
+     *
+     * @param marker name of the marker added by {@link Composer#marker(String)}
+     */
+    public void seekTo(@NonNull String marker) {
+        long position = getMarkerPosition(marker);
+        if (position >= 0) {
+            seekTo(position);
+        }
+    }
+
+    /**
+     * Getter the position of the marker.
+     *
+     * @param marker name of the marker added by {@link Composer#marker(String)}
+     * @return The position in milliseconds, or -1 if there is no such marker
+     */
+    public long getMarkerPosition(@NonNull String marker) {
+        for (int i = 0; i < mMarkerNames.length; i++) {
+            if (mMarkerNames[i].equals(marker)) {
+                return mMarkerTimes[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Move the playhead to the progress. see {@link #seekTo(long)}
+     *
+     * @param progress The progress, as a percentage of 1
+     */
+    public void setProgress(float progress) {
+        seekTo(Math.round(mDuration * (double) Math.max(0f, Math.min(progress, 1f))));
+    }
+
+    /**
+     * Getter the progress of the playhead. It is 1 at the last baked parameter.
+     *
+     * @return The progress, as a percentage of 1
+     */
+    @Override
+    public float getProgress() {
+        int last = mAnimParameters.size() - 1;
+        if (last <= 0 || mDrawCount < 0) {
+            return 0;
+        }
+        if (mDrawCount >= last || mDuration <= 0) {
+            return 1;
+        }
+        return Math.min(1f, (float) timeOf(mDrawCount) / mDuration);
+    }
+
+    /**
+     * Return the position of the baked parameter in milliseconds, the inverse of {@link #indexOf(double)}.
+     * Each tween is baked to a whole number of parameters, so the position is found from the start of its tween.
+     */
+    private long timeOf(int index) {
+        int tween = Math.min(firstAtOrAfter(mTweenEnds, index), mTweenEnds.length - 1);
+        int first = tween == 0 ? 0 : mTweenEnds[tween - 1] + 1;
+        long start = mTweenStartTimes[tween];
+        return Math.min(start + (index - first) * mFps, start + mTweenParameters.get(tween).animDuration);
+    }
+
+    /**
+     * Getter the sum of the durations of the tweens.
+     *
+     * @return duration in milliseconds
+     */
+    public long getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * Set the policy for the callbacks which a seek in the direction of the pass jumps over. default {@link SeekCallbackPolicy#SKIP}.
+     *
+     * @param seekCallbackPolicy policy
+     */
+    public void setSeekCallbackPolicy(@NonNull SeekCallbackPolicy seekCallbackPolicy) {
+        mSeekCallbackPolicy = seekCallbackPolicy;
+    }
+
+    /**
+     * Getter the sum of the durations of the tweens.
+     *
+     * @return duration in milliseconds
+     */
+    private static long sumDuration(List<TweenParameter> tweenParameters) {
+        long duration = 0;
+        for (int i = 0, n = tweenParameters.size(); i < n; i++) {
+            duration += tweenParameters.get(i).animDuration;
+        }
+        return duration;
     }
 
     /**
@@ -301,6 +803,19 @@ public class TweenAnimator implements Animator {
     }
 
 
+    /**
+     * A callback at a time composed by {@link Composer#callAt(long, AnimCallBack)}
+     */
+    private static class TimedCallBack {
+        private final long position;
+        private final AnimCallBack callBack;
+
+        private TimedCallBack(long position, AnimCallBack callBack) {
+            this.position = position;
+            this.callBack = callBack;
+        }
+    }
+
     /**
      * Builder for {@link TweenAnimator}
      */
@@ -310,29 +825,101 @@ public class TweenAnimator implements Animator {
 
         protected List<TweenParameter> mTweenParameterList = new ArrayList<>();
 
-        /**
-         * If true, the tween will loop when it reaches the end. Can be set via the props param.
-         */
-        private boolean mTweenLoop = false;
+        private boolean mReverse = false;
+
+        private boolean mYoyo = false;
+
+        private int mRepeatCount = 0;
 
         private AnimParameter mInitialParam = new AnimParameter(0, 0);
 
+        private Timeline mTimeline;
+
+        private long mTimelineOffset;
+
+        private final List<TimedCallBack> mTimedCallBacks = new ArrayList<>();
+
+        private final List<String> mMarkerNames = new ArrayList<>();
+
+        private final List<Long> mMarkerTimes = new ArrayList<>();
+
         private Composer(DisplayBase DisplayBase) {
             mDisplayBase = DisplayBase;
         }
 
-        public void end() {
-            mDisplayBase.animator(new TweenAnimator(mTweenLoop, mInitialParam, mTweenParameterList));
+        /**
+         * Set the composed TweenAnimator to the display object.
+         *
+         * @return TweenAnimator, for example to seek it later
+         */
+        public TweenAnimator end() {
+            TweenAnimator animator = new TweenAnimator(this);
+            mDisplayBase.animator(animator);
+            if (mTimeline != null) {
+                mTimeline.addTween(mTimelineOffset, animator.getDuration());
+            }
+            return animator;
         }
 
         /**
-         * Setter mTweenLoop
+         * Drive the tween by the clock of the timeline instead of the frame count.
+         * The tween starts at the offset, and is seeked, paused and reversed together with the other members.
+         * tweenLoop, reverse, yoyo and repeat are ignored.
+         *
+         * @param timeline timeline
+         * @param offset   The start of the tween on the timeline in milliseconds
+         * @return this
+         */
+        public Composer timeline(@NonNull Timeline timeline, long offset) {
+            mTimeline = timeline;
+            mTimelineOffset = offset;
+            return this;
+        }
+
+        /**
+         * Loop the tweens for ever. see {@link #repeat(int)}
          *
          * @param repeat If true, the tween will loop when it reaches the end.
          * @return this
          */
         public Composer tweenLoop(boolean repeat) {
-            mTweenLoop = repeat;
+            return repeat(repeat ? REPEAT_INFINITE : 0);
+        }
+
+        /**
+         * Play the tweens backward, from the values of the last tween to the initial values.
+         * The callbacks are called at the start of each tween.
+         *
+         * @return this
+         */
+        public Composer reverse() {
+            mReverse = true;
+            return this;
+        }
+
+        /**
+         * Play the tweens to the end and back the count times. The baked parameters are walked backward,
+         * so nothing is baked twice, and the parameter at each end is drawn once when the direction turns.
+         *
+         * @param count The number of round trips, or {@link #REPEAT_INFINITE} to play for ever.
+         * @return this
+         */
+        public Composer yoyo(int count) {
+            mYoyo = true;
+            mRepeatCount = count < 0 ? REPEAT_INFINITE : Math.max(0, count * 2 - 1);
+            return this;
+        }
+
+        /**
+         * Play the tweens the count times again after the first time, each time from the start.
+         * Replaces {@link #yoyo(int)}.
+         *
+         * @param count The number of repeats, or {@link #REPEAT_INFINITE} to play for ever.
+         * @return this
+         */
+        public Composer repeat(int count) {
+            mYoyo = false;
+            mRepeatCount = count < 0 ? REPEAT_INFINITE : count;
             return this;
         }
 
@@ -835,6 +1422,77 @@ public class TweenAnimator implements Animator {
             return this;
         }
 
+        /**
+         * Call the function at the time into the last queued tween, for example 350 to call it 350 milliseconds
+         * after the tween starts.
+         *
+         * @param time     The time from the start of the last queued tween in milliseconds
+         * @param callBack callback The function to call.
+         * @return this
+         */
+        public Composer call(long time, AnimCallBack callBack) {
+            long start = mTweenParameterList.isEmpty() ? 0 :
+                    sumDuration(mTweenParameterList) - mTweenParameterList.get(mTweenParameterList.size() - 1).animDuration;
+            return callAt(start + time, callBack);
+        }
+
+        /**
+         * Call the function when the playhead crosses the position in either direction,
+         * including when frames are skipped or the position is jumped over by a seek with {@link SeekCallbackPolicy#FIRE}.
+         *
+         * @param position The position from the start of the tweens in milliseconds
+         * @param callBack callback The function to call.
+         * @return this
+         */
+        public Composer callAt(long position, AnimCallBack callBack) {
+            mTimedCallBacks.add(new TimedCallBack(Math.max(0, position), callBack));
+            return this;
+        }
+
+        /**
+         * Call the function when the playhead crosses the marker. see {@link #callAt(long, AnimCallBack)}
+         *
+         * @param marker   name of a marker added before
+         * @param callBack callback The function to call.
+         * @return this
+         */
+        public Composer callAt(@NonNull String marker, AnimCallBack callBack) {
+            int index = mMarkerNames.indexOf(marker);
+            if (index >= 0) {
+                callAt(mMarkerTimes.get(index), callBack);
+            }
+            return this;
+        }
+
+        /**
+         * Add a marker at the end of the queued tweens. A marker with the same name is moved.
+         * The playhead can be moved to it by {@link TweenAnimator#seekTo(String)}.
+         *
+         * @param marker name of the marker
+         * @return this
+         */
+        public Composer marker(@NonNull String marker) {
+            return marker(marker, sumDuration(mTweenParameterList));
+        }
+
+        /**
+         * Add a marker at the position. A marker with the same name is moved.
+         *
+         * @param marker   name of the marker
+         * @param position The position from the start of the tweens in milliseconds
+         * @return this
+         */
+        public Composer marker(@NonNull String marker, long position) {
+            int index = mMarkerNames.indexOf(marker);
+            if (index >= 0) {
+                mMarkerNames.remove(index);
+                mMarkerTimes.remove(index);
+            }
+            mMarkerNames.add(marker);
+            mMarkerTimes.add(Math.max(0, position));
+            return this;
+        }
+
     }
 
 }
@@ -0,0 +1,282 @@
+package com.daasuu.library.cache;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide cache of decoded bitmaps keyed by resource and decode options, shared by all drawers and views.
+ * Bitmaps are handed out as reference-counted {@link Handle}s. Bitmaps which are not referenced by any handle
+ * are kept in least-recently-used order, and evicted when the total size exceeds the byte budget.
+ * A bitmap still referenced by a live drawer is never evicted.
+ */
+public class BitmapCache {
+    private static final String TAG = BitmapCache.class.getSimpleName();
+
+    /**
+     * Called with a bitmap evicted from the cache. The bitmap is no longer drawn, so its memory can be reused.
+     */
+    public interface OnEvictedListener {
+        void onEvicted(@NonNull Bitmap bitmap);
+    }
+
+    private static final BitmapCache sInstance = new BitmapCache(Runtime.getRuntime().maxMemory() / 8);
+
+    private long mMaxBytes;
+
+    private final RefCountedLruMap<Key, Bitmap> mEntries = new RefCountedLruMap<Key, Bitmap>() {
+        @Override
+        protected long sizeOf(Bitmap bitmap) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                return bitmap.getAllocationByteCount();
+            }
+            return (long) bitmap.getRowBytes() * bitmap.getHeight();
+        }
+
+        @Override
+        protected boolean isStale(Bitmap bitmap) {
+            return bitmap.isRecycled();
+        }
+    };
+
+    private volatile OnEvictedListener mOnEvictedListener;
+
+    /**
+     * Return the process-wide instance. The default budget is an eighth of the max heap size.
+     *
+     * @return BitmapCache
+     */
+    public static BitmapCache getInstance() {
+        return sInstance;
+    }
+
+    private BitmapCache(long maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Set the byte budget. Unreferenced bitmaps are evicted if the cache exceeds it.
+     *
+     * @param maxBytes The byte budget of the cache
+     */
+    public void setMaxBytes(long maxBytes) {
+        List<Bitmap> evicted;
+        synchronized (this) {
+            mMaxBytes = maxBytes;
+            evicted = mEntries.trimToSize(mMaxBytes);
+        }
+        dispatchEvicted(evicted);
+    }
+
+    public synchronized long getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    /**
+     * Getter the total size of the cached bitmaps, including the referenced ones.
+     *
+     * @return size in bytes
+     */
+    public synchronized long getBytes() {
+        return mEntries.getBytes();
+    }
+
+    public synchronized int getHitCount() {
+        return mEntries.getHitCount();
+    }
+
+    public synchronized int getMissCount() {
+        return mEntries.getMissCount();
+    }
+
+    public synchronized int getEvictionCount() {
+        return mEntries.getEvictionCount();
+    }
+
+    /**
+     * Set the listener of evicted bitmaps, for example to reuse them as inBitmap.
+     *
+     * @param listener listener, or null
+     */
+    public void setOnEvictedListener(OnEvictedListener listener) {
+        mOnEvictedListener = listener;
+    }
+
+    /**
+     * Return a new handle of the cached bitmap.
+     *
+     * @param key resource and decode options
+     * @return handle, or null if the bitmap is not cached
+     */
+    public synchronized Handle acquire(@NonNull Key key) {
+        RefCountedLruMap.Entry<Bitmap> entry = mEntries.acquire(key);
+        return entry != null ? new Handle(entry) : null;
+    }
+
+    /**
+     * Cache the bitmap and return a new handle of it.
+     * If the key has been cached in the meantime, a handle of the cached bitmap is returned instead,
+     * and the given bitmap is passed to the listener as evicted.
+     *
+     * @param key    resource and decode options
+     * @param bitmap decoded bitmap
+     * @return handle
+     */
+    public Handle put(@NonNull Key key, @NonNull Bitmap bitmap) {
+        List<Bitmap> evicted;
+        Handle handle;
+        synchronized (this) {
+            RefCountedLruMap.Entry<Bitmap> entry = mEntries.put(key, bitmap);
+            handle = new Handle(entry);
+            if (entry.getValue() != bitmap) {
+                evicted = new ArrayList<>(1);
+                evicted.add(bitmap);
+            } else {
+                evicted = mEntries.trimToSize(mMaxBytes);
+            }
+        }
+        dispatchEvicted(evicted);
+        return handle;
+    }
+
+    /**
+     * Evict all bitmaps which are not referenced.
+     */
+    public void evictAll() {
+        List<Bitmap> evicted;
+        synchronized (this) {
+            evicted = mEntries.trimToSize(0);
+        }
+        dispatchEvicted(evicted);
+    }
+
+    private void release(RefCountedLruMap.Entry<Bitmap> entry) {
+        List<Bitmap> evicted;
+        synchronized (this) {
+            mEntries.release(entry);
+            evicted = mEntries.trimToSize(mMaxBytes);
+        }
+        dispatchEvicted(evicted);
+    }
+
+    private void dispatchEvicted(List<Bitmap> evicted) {
+        OnEvictedListener listener = mOnEvictedListener;
+        if (evicted == null || listener == null) {
+            return;
+        }
+        for (Bitmap bitmap : evicted) {
+            listener.onEvicted(bitmap);
+        }
+    }
+
+    /**
+     * Resource and decode options of a cached bitmap.
+     */
+    public static final class Key {
+        private final int mResId;
+        private final int mReqWidth;
+        private final int mReqHeight;
+
+        /**
+         * @param resId     resource id of the image
+         * @param reqWidth  The required width which the image was sampled down to, or 0
+         * @param reqHeight The required height which the image was sampled down to, or 0
+         */
+        public Key(int resId, int reqWidth, int reqHeight) {
+            mResId = resId;
+            mReqWidth = reqWidth;
+            mReqHeight = reqHeight;
+        }
+
+        public int getResId() {
+            return mResId;
+        }
+
+        public int getReqWidth() {
+            return mReqWidth;
+        }
+
+        public int getReqHeight() {
+            return mReqHeight;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return mResId == key.mResId && mReqWidth == key.mReqWidth && mReqHeight == key.mReqHeight;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mResId;
+            result = 31 * result + mReqWidth;
+            result = 31 * result + mReqHeight;
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" +
+                    "resId=" + mResId +
+                    ", reqWidth=" + mReqWidth +
+                    ", reqHeight=" + mReqHeight +
+                    '}';
+        }
+    }
+
+    /**
+     * A reference to a cached bitmap. The bitmap is not evicted until {@link #release()} is called.
+     */
+    public final class Handle {
+        private final RefCountedLruMap.Entry<Bitmap> mEntry;
+        private boolean mReleased = false;
+
+        private Handle(RefCountedLruMap.Entry<Bitmap> entry) {
+            mEntry = entry;
+        }
+
+        /**
+         * @return cached bitmap
+         */
+        @NonNull
+        public Bitmap getBitmap() {
+            return mEntry.getValue();
+        }
+
+        /**
+         * Return a new handle of the same bitmap, which is released separately. This is not counted as a hit.
+         *
+         * @return handle
+         */
+        @NonNull
+        public Handle duplicate() {
+            synchronized (BitmapCache.this) {
+                synchronized (this) {
+                    if (mReleased) {
+                        throw new IllegalStateException("The handle has been released.");
+                    }
+                }
+                mEntries.retain(mEntry);
+                return new Handle(mEntry);
+            }
+        }
+
+        /**
+         * Release the reference. The bitmap must not be drawn after this. Releasing twice is ignored.
+         */
+        public void release() {
+            synchronized (this) {
+                if (mReleased) {
+                    return;
+                }
+                mReleased = true;
+            }
+            BitmapCache.this.release(mEntry);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.daasuu.library.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Reference-counted values kept in least-recently-used order, the bookkeeping behind {@link BitmapCache}.
+ * A value is only evicted by {@link #trimToSize(long)}, and only while no {@link Entry} of it is retained.
+ * This is not thread safe, the owner synchronizes the calls.
+ *
+ * @param <K> key
+ * @param <V> cached value
+ */
+abstract class RefCountedLruMap<K, V> {
+
+    private final LinkedHashMap<K, Entry<V>> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long mBytes;
+
+    private int mHitCount;
+
+    private int mMissCount;
+
+    private int mEvictionCount;
+
+    /**
+     * @param value cached value
+     * @return size of the value in bytes
+     */
+    protected abstract long sizeOf(V value);
+
+    /**
+     * A stale value is treated as not cached, for example a recycled bitmap.
+     *
+     * @param value cached value
+     * @return true if the value can no longer be handed out
+     */
+    protected boolean isStale(V value) {
+        return false;
+    }
+
+    long getBytes() {
+        return mBytes;
+    }
+
+    int getHitCount() {
+        return mHitCount;
+    }
+
+    int getMissCount() {
+        return mMissCount;
+    }
+
+    int getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Retain the cached value of the key, and mark it as most recently used.
+     *
+     * @param key key
+     * @return retained entry, or null if the key is not cached
+     */
+    Entry<V> acquire(K key) {
+        Entry<V> entry = mEntries.get(key);
+        if (entry == null || isStale(entry.mValue)) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        entry.mRefCount++;
+        return entry;
+    }
+
+    /**
+     * Cache the value and retain it. If the key is already cached, the cached value is retained instead,
+     * so the caller can tell from {@link Entry#getValue()} whether its value was taken.
+     * This does not trim, call {@link #trimToSize(long)} afterwards.
+     *
+     * @param key   key
+     * @param value value
+     * @return retained entry
+     */
+    Entry<V> put(K key, V value) {
+        Entry<V> entry = mEntries.get(key);
+        if (entry != null && !isStale(entry.mValue)) {
+            entry.mRefCount++;
+            return entry;
+        }
+        if (entry != null) {
+            mBytes -= entry.mBytes;
+        }
+        entry = new Entry<>(value, sizeOf(value));
+        entry.mRefCount++;
+        mEntries.put(key, entry);
+        mBytes += entry.mBytes;
+        return entry;
+    }
+
+    void retain(Entry<V> entry) {
+        entry.mRefCount++;
+    }
+
+    /**
+     * Drop a reference. This does not trim, call {@link #trimToSize(long)} afterwards.
+     *
+     * @param entry entry returned by acquire or put
+     */
+    void release(Entry<V> entry) {
+        entry.mRefCount--;
+    }
+
+    /**
+     * Evict unreferenced values from the least recently used one until the total size fits in maxBytes.
+     *
+     * @param maxBytes byte budget
+     * @return evicted values, or null if nothing was evicted
+     */
+    List<V> trimToSize(long maxBytes) {
+        List<V> evicted = null;
+        Iterator<Entry<V>> iterator = mEntries.values().iterator();
+        while (mBytes > maxBytes && iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (entry.mRefCount > 0) {
+                continue;
+            }
+            iterator.remove();
+            mBytes -= entry.mBytes;
+            mEvictionCount++;
+            if (evicted == null) {
+                evicted = new ArrayList<>();
+            }
+            evicted.add(entry.mValue);
+        }
+        return evicted;
+    }
+
+    static final class Entry<V> {
+        private final V mValue;
+        private final long mBytes;
+        private int mRefCount = 0;
+
+        private Entry(V value, long bytes) {
+            mValue = value;
+            mBytes = bytes;
+        }
+
+        V getValue() {
+            return mValue;
+        }
+
+        int getRefCount() {
+            return mRefCount;
+        }
+    }
+}
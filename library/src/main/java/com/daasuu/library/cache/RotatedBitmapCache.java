@@ -0,0 +1,235 @@
+package com.daasuu.library.cache;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Cache of pre-rotated variants of a bitmap (or of each frame of a SpriteSheet).
+ * The rotation is quantised into buckets of a fixed angle step, and each variant is rendered once
+ * on a background thread. Variants are held in least-recently-used order and evicted when the total
+ * size exceeds the memory cap.
+ */
+public class RotatedBitmapCache {
+    private static final String TAG = RotatedBitmapCache.class.getSimpleName();
+
+    /**
+     * All caches share a single worker, so building variants never competes with the drawing thread for more than one core.
+     */
+    private static final ExecutorService sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            Thread thread = new Thread(r, "FPSAnimator-" + TAG);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    /**
+     * The angle step of a bucket in degrees.
+     */
+    private final float mAngleStep;
+
+    /**
+     * The number of buckets in 360 degrees.
+     */
+    private final int mBucketNum;
+
+    /**
+     * The memory cap of this cache in bytes.
+     */
+    private final long mMaxBytes;
+
+    private long mBytes;
+
+    private final LinkedHashMap<Integer, Variant> mVariants = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Set<Integer> mPendingKeys = new HashSet<>();
+
+    /**
+     * Constructor
+     *
+     * @param angleStep The angle step of a bucket in degrees. For example, 5 renders a variant every 5 degrees.
+     * @param maxBytes  The memory cap of this cache in bytes.
+     */
+    public RotatedBitmapCache(float angleStep, long maxBytes) {
+        if (angleStep <= 0 || angleStep > 360) {
+            throw new IllegalArgumentException("angleStep must be in (0, 360] : " + angleStep);
+        }
+        mBucketNum = Math.max(1, Math.round(360f / angleStep));
+        mAngleStep = 360f / mBucketNum;
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Return the bucket which the rotation falls in. Bucket 0 is the unrotated one.
+     *
+     * @param rotation The rotation in degrees
+     * @return bucket index
+     */
+    public int bucketOf(float rotation) {
+        float normalized = rotation % 360f;
+        if (normalized < 0) {
+            normalized += 360f;
+        }
+        int bucket = Math.round(normalized / mAngleStep);
+        return bucket >= mBucketNum ? 0 : bucket;
+    }
+
+    /**
+     * Return the pre-rotated variant, or null if it is not ready yet.
+     * When the variant is missing, it is scheduled to be built in the background.
+     *
+     * @param frame  Index of the frame which is rotated. Use 0 for a plain bitmap.
+     * @param bucket bucket index returned by {@link #bucketOf(float)}
+     * @param source Bitmap to be rotated
+     * @param src    The subset of the source bitmap to be rotated. If null, the entire bitmap is used.
+     * @param width  The width which the subset is drawn in pixels
+     * @param height The height which the subset is drawn in pixels
+     * @param regX   The horizontal rotate registration point in pixels
+     * @param regY   The vertical rotate registration point in pixels
+     * @return variant or null
+     */
+    public Variant get(int frame, int bucket, @NonNull Bitmap source, Rect src, float width, float height, float regX, float regY) {
+        final Integer key = frame * mBucketNum + bucket;
+        synchronized (this) {
+            Variant variant = mVariants.get(key);
+            if (variant != null || !mPendingKeys.add(key)) {
+                return variant;
+            }
+        }
+        sExecutor.execute(new BuildTask(key, source, src == null ? null : new Rect(src), width, height, regX, regY, bucket * mAngleStep));
+        return null;
+    }
+
+    /**
+     * Discard all variants. Call when the source or the registration point has been changed.
+     */
+    public void clear() {
+        synchronized (this) {
+            mVariants.clear();
+            mPendingKeys.clear();
+            mBytes = 0;
+        }
+    }
+
+    private void put(Integer key, Variant variant) {
+        synchronized (this) {
+            if (!mPendingKeys.remove(key)) {
+                // cleared while building
+                return;
+            }
+            long size = variant.bitmap.getByteCount();
+            if (size > mMaxBytes) {
+                return;
+            }
+            mVariants.put(key, variant);
+            mBytes += size;
+
+            // Evicted bitmaps are not recycled here, since the drawing thread may still be blitting them.
+            Iterator<Map.Entry<Integer, Variant>> iterator = mVariants.entrySet().iterator();
+            while (mBytes > mMaxBytes && iterator.hasNext()) {
+                Variant eldest = iterator.next().getValue();
+                mBytes -= eldest.bitmap.getByteCount();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void cancel(Integer key) {
+        synchronized (this) {
+            mPendingKeys.remove(key);
+        }
+    }
+
+    /**
+     * A bitmap rotated in advance, and its offset from the drawing position.
+     */
+    public static class Variant {
+
+        public final Bitmap bitmap;
+
+        /**
+         * The horizontal offset from the drawing position in pixels
+         */
+        public final float left;
+
+        /**
+         * The vertical offset from the drawing position in pixels
+         */
+        public final float top;
+
+        private Variant(Bitmap bitmap, float left, float top) {
+            this.bitmap = bitmap;
+            this.left = left;
+            this.top = top;
+        }
+    }
+
+    private class BuildTask implements Runnable {
+
+        private final Integer mKey;
+        private final Bitmap mSource;
+        private final Rect mSrc;
+        private final float mWidth;
+        private final float mHeight;
+        private final float mRegX;
+        private final float mRegY;
+        private final float mAngle;
+
+        private BuildTask(Integer key, Bitmap source, Rect src, float width, float height, float regX, float regY, float angle) {
+            mKey = key;
+            mSource = source;
+            mSrc = src;
+            mWidth = width;
+            mHeight = height;
+            mRegX = regX;
+            mRegY = regY;
+            mAngle = angle;
+        }
+
+        @Override
+        public void run() {
+            Matrix matrix = new Matrix();
+            matrix.setRotate(mAngle, mRegX, mRegY);
+            RectF bounds = new RectF(0, 0, mWidth, mHeight);
+            matrix.mapRect(bounds);
+
+            int width = (int) Math.ceil(bounds.width());
+            int height = (int) Math.ceil(bounds.height());
+            if (width <= 0 || height <= 0 || mSource.isRecycled()) {
+                cancel(mKey);
+                return;
+            }
+
+            Bitmap bitmap;
+            try {
+                bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            } catch (OutOfMemoryError e) {
+                cancel(mKey);
+                return;
+            }
+
+            matrix.postTranslate(-bounds.left, -bounds.top);
+            Canvas canvas = new Canvas(bitmap);
+            canvas.concat(matrix);
+            canvas.drawBitmap(mSource, mSrc, new RectF(0, 0, mWidth, mHeight), new Paint(Paint.FILTER_BITMAP_FLAG | Paint.ANTI_ALIAS_FLAG));
+
+            put(mKey, new Variant(bitmap, bounds.left, bounds.top));
+        }
+    }
+}
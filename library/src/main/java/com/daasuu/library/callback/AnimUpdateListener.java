@@ -0,0 +1,21 @@
+package com.daasuu.library.callback;
+
+/**
+ * Listener for the animation parameter of a display object, called every frame after the animator has updated it.
+ * The values are passed as primitives, so nothing is allocated per frame.
+ */
+public interface AnimUpdateListener {
+
+    /**
+     * Called with the animation parameter of the frame.
+     *
+     * @param x        The horizontal translation (x position) in pixels
+     * @param y        The vertical translation (y position) in pixels
+     * @param alpha    The alpha (transparency) ,as a percentage of 255.
+     * @param scaleX   The horizontal scale, as a percentage of 1
+     * @param scaleY   The vertical scale, as a percentage of 1
+     * @param rotation The rotation, in degrees
+     * @param progress The progress of the animator, as a percentage of 1
+     */
+    void onUpdate(float x, float y, int alpha, float scaleX, float scaleY, float rotation, float progress);
+}
@@ -0,0 +1,15 @@
+package com.daasuu.library.callback;
+
+import android.graphics.Bitmap;
+
+/**
+ * Callback for a bitmap decoded in the background.
+ * It is called on the UI thread.
+ */
+public interface BitmapCallBack {
+
+    /**
+     * @param bitmap decoded bitmap, or null if decoding failed
+     */
+    void call(Bitmap bitmap);
+}
@@ -0,0 +1,22 @@
+package com.daasuu.library.callback;
+
+import android.support.annotation.NonNull;
+
+import com.daasuu.library.DisplayBase;
+
+/**
+ * Callback for the display object touched in FPSTextureView or FPSSurfaceView.
+ * It is called on the UI thread.
+ */
+public interface TouchCallBack {
+
+    /**
+     * Called with the topmost display object which contains the touched point.
+     * It is not called when no display object contains the point.
+     *
+     * @param displayBase touched display object
+     * @param x           The horizontal position of the touch in pixels
+     * @param y           The vertical position of the touch in pixels
+     */
+    void call(@NonNull DisplayBase displayBase, float x, float y);
+}
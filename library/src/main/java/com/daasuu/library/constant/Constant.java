@@ -16,4 +16,14 @@ public class Constant {
     public static final float DEFAULT_ACCELERATION_Y = 2;
     public static final float DEFAULT_ACCELERATION_X = 8;
     public static final int DEFAULT_FREQUENCY = 1;
+
+    public static final int DEFAULT_ROTATION_CACHE_MAX_BYTES = 4 * 1024 * 1024;
+
+    public static final float CULLING_MARGIN_RATE = 0.25f;
+
+    public static final int CONTAINER_CACHE_MAX_BYTES = 16 * 1024 * 1024;
+
+    public static final int BITMAP_REUSE_POOL_MAX_BYTES = 8 * 1024 * 1024;
+
+    public static final int CALLBACK_QUEUE_CAPACITY = 256;
 }
@@ -1,9 +1,11 @@
 package com.daasuu.library.drawer;
 
 import android.graphics.Canvas;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 
 import com.daasuu.library.Drawer;
+import com.daasuu.library.cache.RotatedBitmapCache;
 
 /**
  * The base drawing class which allows the deformation of the scale, rotation, and alpha value.
@@ -36,6 +38,34 @@ public abstract class BaseDrawer implements Drawer {
      */
     protected float mRotateRegistrationY = 0f;
 
+    /**
+     * If true, mCachedWidth and mCachedHeight are stale.
+     */
+    private volatile boolean mBoundsInvalidated = true;
+
+    private float mCachedWidth;
+
+    private float mCachedHeight;
+
+    /**
+     * The scale and rotation around the registration points, relative to the drawing position.
+     * It is composed again only when the scale, rotation or registration points have changed.
+     */
+    private final Matrix mLocalMatrix = new Matrix();
+
+    private boolean mLocalMatrixInvalidated = true;
+
+    private float mLocalScaleX;
+
+    private float mLocalScaleY;
+
+    private float mLocalRotation;
+
+    /**
+     * mLocalMatrix translated to the drawing position.
+     */
+    private final Matrix mDrawMatrix = new Matrix();
+
 
     public BaseDrawer(Paint paint) {
         this.mPaint = paint;
@@ -50,6 +80,7 @@ public abstract class BaseDrawer implements Drawer {
     protected void setScaleRegistration(float regX, float regY) {
         mScaleRegistrationX = regX;
         mScaleRegistrationY = regY;
+        mLocalMatrixInvalidated = true;
     }
 
     /**
@@ -61,18 +92,191 @@ public abstract class BaseDrawer implements Drawer {
     protected void setRotateRegistration(float regX, float regY) {
         mRotateRegistrationX = regX;
         mRotateRegistrationY = regY;
+        mLocalMatrixInvalidated = true;
+    }
+
+    /**
+     * Mark the cached width and height as stale.
+     * Call this when the width or height of the object to be drawn has changed.
+     */
+    public void invalidateBounds() {
+        mBoundsInvalidated = true;
+    }
+
+    /**
+     * Measure the width and height again by {@link #getWidth()} and {@link #getHeight()} only if they have been invalidated.
+     *
+     * @return true if the cached width or height has changed.
+     */
+    public boolean updateBounds() {
+        if (!mBoundsInvalidated) {
+            return false;
+        }
+        mBoundsInvalidated = false;
+
+        float width = getWidth();
+        float height = getHeight();
+        boolean changed = width != mCachedWidth || height != mCachedHeight;
+        mCachedWidth = width;
+        mCachedHeight = height;
+        return changed;
+    }
+
+    /**
+     * return the width cached by {@link #updateBounds()}.
+     *
+     * @return width
+     */
+    public float getCachedWidth() {
+        return mCachedWidth;
+    }
+
+    /**
+     * return the height cached by {@link #updateBounds()}.
+     *
+     * @return height
+     */
+    public float getCachedHeight() {
+        return mCachedHeight;
+    }
+
+    /**
+     * Rewind the state of the drawer which changes while it is drawn, such as the frame of a sprite animation,
+     * so the drawer can be reused by a pooled display object. See {@link com.daasuu.library.DisplayObjectPool}.
+     * Nothing changes while drawing by default. Override this if the drawer has its own playback state.
+     */
+    public void reset() {
+        // Do nothing
+    }
+
+    /**
+     * Whether the drawer may draw differently in the next frame by itself, such as a playing sprite animation.
+     * A Container does not draw its cache bitmap while a child is animating.
+     *
+     * @return true if animating. default false.
+     */
+    public boolean isAnimating() {
+        return false;
+    }
+
+    /**
+     * Set the speed of the animation of the drawer, such as the frame rate of a sprite animation.
+     * This is called every frame before drawing, so it must not do more than storing the value.
+     *
+     * @param timeScale The speed, as a percentage of 1
+     */
+    public void setTimeScale(float timeScale) {
+        // Do nothing
+    }
+
+    /**
+     * Advance the animation of the drawer itself, such as the frame of a sprite animation.
+     * This is called every frame before culling, so the animation keeps playing while the display object is outside the canvas.
+     * Nothing is advanced by default.
+     */
+    public void update() {
+        // Do nothing
     }
 
     @Override
     public void draw(Canvas canvas, float x, float y, int alpha, float scaleX, float scaleY, float rotation) {
+        if (alpha <= 0 || scaleX == 0f || scaleY == 0f) {
+            // invisible
+            return;
+        }
+
+        if (scaleX == 1f && scaleY == 1f && rotation == 0f) {
+            drawTranslated(canvas, x, y, alpha);
+            return;
+        }
+
+        getTransform(mDrawMatrix, x, y, scaleX, scaleY, rotation);
 
         canvas.save();
-        canvas.scale(scaleX, scaleY, x + mScaleRegistrationX, y + mScaleRegistrationY);
-        canvas.rotate(rotation, x + mRotateRegistrationX, y + mRotateRegistrationY);
+        canvas.concat(mDrawMatrix);
+        draw(canvas, 0, 0, alpha);
+        canvas.restore();
+    }
+
+    /**
+     * Set the transform which {@link #draw(Canvas, float, float, int, float, float, float)} applies with given properties.
+     * The transform maps the rectangle (0, 0, width, height) to the canvas.
+     *
+     * @param matrix   the matrix to be set
+     * @param x        The horizontal translation (x position) in pixels
+     * @param y        The vertical translation (y position) in pixels
+     * @param scaleX   The horizontal scale, as a percentage of 1
+     * @param scaleY   The vertical scale, as a percentage of 1
+     * @param rotation rotation angle
+     */
+    public void getTransform(Matrix matrix, float x, float y, float scaleX, float scaleY, float rotation) {
+        if (scaleX == 1f && scaleY == 1f && rotation == 0f) {
+            matrix.setTranslate(x, y);
+            return;
+        }
+        updateLocalMatrix(scaleX, scaleY, rotation);
+        matrix.set(mLocalMatrix);
+        matrix.postTranslate(x, y);
+    }
 
+    /**
+     * Draw the object which is neither scaled nor rotated. No transform is applied to the canvas.
+     * Override this to use a cheaper drawing path for pure translation.
+     *
+     * @param canvas This Canvas acquired by lookCanvas in FPSTextureView or FPSSurfaceView.
+     * @param x      The horizontal translation (x position) in pixels
+     * @param y      The vertical translation (y position) in pixels
+     * @param alpha  The alpha (transparency) ,as a percentage of 255.
+     */
+    protected void drawTranslated(Canvas canvas, float x, float y, int alpha) {
         draw(canvas, x, y, alpha);
+    }
 
-        canvas.restore();
+    private void updateLocalMatrix(float scaleX, float scaleY, float rotation) {
+        if (!mLocalMatrixInvalidated
+                && scaleX == mLocalScaleX
+                && scaleY == mLocalScaleY
+                && rotation == mLocalRotation) {
+            return;
+        }
+        mLocalMatrixInvalidated = false;
+        mLocalScaleX = scaleX;
+        mLocalScaleY = scaleY;
+        mLocalRotation = rotation;
+
+        mLocalMatrix.setScale(scaleX, scaleY, mScaleRegistrationX, mScaleRegistrationY);
+        mLocalMatrix.preRotate(rotation, mRotateRegistrationX, mRotateRegistrationY);
+    }
+
+    /**
+     * Draw a pre-rotated variant on the canvas. Only the scale is applied to the canvas, since the variant
+     * has already been rotated around the rotate registration point.
+     *
+     * @param canvas  This Canvas acquired by lookCanvas in FPSTextureView or FPSSurfaceView.
+     * @param variant pre-rotated variant
+     * @param x       The horizontal translation (x position) in pixels
+     * @param y       The vertical translation (y position) in pixels
+     * @param alpha   The alpha (transparency) ,as a percentage of 255.
+     * @param scaleX  The horizontal scale, as a percentage of 1
+     * @param scaleY  The vertical scale, as a percentage of 1
+     */
+    protected void drawRotatedVariant(Canvas canvas, RotatedBitmapCache.Variant variant, float x, float y, int alpha, float scaleX, float scaleY) {
+        if (alpha <= 0 || scaleX == 0f || scaleY == 0f) {
+            return;
+        }
+
+        boolean scaled = scaleX != 1f || scaleY != 1f;
+        if (scaled) {
+            canvas.save();
+            canvas.scale(scaleX, scaleY, x + mScaleRegistrationX, y + mScaleRegistrationY);
+        }
+
+        mPaint.setAlpha(alpha);
+        canvas.drawBitmap(variant.bitmap, x + variant.left, y + variant.top, mPaint);
+
+        if (scaled) {
+            canvas.restore();
+        }
     }
 
     /**
@@ -8,6 +8,9 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.support.annotation.NonNull;
 
+import com.daasuu.library.cache.BitmapCache;
+import com.daasuu.library.cache.RotatedBitmapCache;
+import com.daasuu.library.constant.Constant;
 import com.daasuu.library.util.Util;
 
 /**
@@ -19,38 +22,145 @@ public class BitmapDrawer extends BaseDrawer {
     /**
      * Bitmap to be drawn in FPSTextureView or FPSSurfaceView.
      */
-    private Bitmap mBitmap;
+    private volatile Bitmap mBitmap;
 
     /**
-     * If true, Draw a Bitmap in device-specific pixel density.
+     * The handle of {@link BitmapCache} which mBitmap belongs to, or null if mBitmap is not cached.
      */
-    private boolean mDpSize = false;
+    private BitmapCache.Handle mBitmapHandle;
 
     /**
-     * Width of Bitmap in device-specific pixel density.
+     * If true, {@link #release()} has been called, so a handle set later is released at once.
      */
-    private float mBitmapDpWidth;
+    private boolean mReleased = false;
 
     /**
-     * Height of Bitmap in device-specific pixel density.
+     * If true, Draw a Bitmap in device-specific pixel density.
      */
-    private float mBitmapDpHeight;
+    private boolean mDpSize = false;
+
+    /**
+     * Size in device-specific pixel density of a pixel of Bitmap.
+     */
+    private float mDpRatio = 1f;
 
     /**
      * Bitmap of Rect holds four integer coordinates for a rectangle.
      */
-    private Rect mBitmapRect;
+    private final Rect mBitmapRect = new Rect();
 
     /**
      * The rectangle that the bitmap will be scaled/translated to fit into
      */
-    private RectF mDpSizeRect;
+    private final RectF mDpSizeRect = new RectF();
+
+    /**
+     * Pre-rotated variants of the Bitmap. If null, the canvas is rotated every frame.
+     */
+    private RotatedBitmapCache mRotationCache;
 
     public BitmapDrawer(@NonNull Bitmap bitmap) {
         super(new Paint());
         this.mBitmap = bitmap;
     }
 
+    /**
+     * Constructor of a drawer of a cached Bitmap. The handle is released by {@link #release()}.
+     *
+     * @param handle handle of {@link BitmapCache}
+     */
+    public BitmapDrawer(@NonNull BitmapCache.Handle handle) {
+        super(new Paint());
+        this.mBitmapHandle = handle;
+        this.mBitmap = handle.getBitmap();
+    }
+
+    /**
+     * Constructor of a placeholder, which draws nothing until {@link #setBitmap(Bitmap)} is called.
+     */
+    public BitmapDrawer() {
+        super(new Paint());
+    }
+
+    /**
+     * Replace Bitmap. This can be called from any thread, for example when the Bitmap has been decoded in the background.
+     * The handle of the previous cached Bitmap is released.
+     *
+     * @param bitmap Bitmap to be drawn in FPSTextureView or FPSSurfaceView.
+     */
+    public void setBitmap(Bitmap bitmap) {
+        replaceBitmap(bitmap, null);
+    }
+
+    /**
+     * Replace Bitmap with a cached one. This can be called from any thread.
+     * The handle of the previous cached Bitmap is released, and the new handle is released by {@link #release()}.
+     *
+     * @param handle handle of {@link BitmapCache}
+     */
+    public void setBitmapHandle(@NonNull BitmapCache.Handle handle) {
+        replaceBitmap(handle.getBitmap(), handle);
+    }
+
+    /**
+     * Stop drawing the Bitmap and release the handle of the cached Bitmap, so the cache can evict it.
+     * Call this when the drawer is no longer used. A handle set after this, for example by a load which finishes later,
+     * is released at once instead of being drawn.
+     */
+    public void release() {
+        synchronized (this) {
+            mReleased = true;
+        }
+        replaceBitmap(null, null);
+    }
+
+    private void replaceBitmap(Bitmap bitmap, BitmapCache.Handle handle) {
+        boolean rejected;
+        BitmapCache.Handle previous = null;
+        synchronized (this) {
+            rejected = mReleased && handle != null;
+            if (!rejected) {
+                previous = mBitmapHandle;
+                mBitmapHandle = handle;
+                mBitmap = bitmap;
+            }
+        }
+        if (rejected) {
+            // loaded after the drawer was released, so nobody else would release it
+            handle.release();
+            return;
+        }
+        if (previous != null && previous != handle) {
+            previous.release();
+        }
+        invalidateBounds();
+        if (mRotationCache != null) {
+            mRotationCache.clear();
+        }
+    }
+
+    /**
+     * Stop drawing the recycled Bitmap, unless it has been replaced in the meantime.
+     */
+    private void clearRecycledBitmap(Bitmap bitmap) {
+        synchronized (this) {
+            if (mBitmap != bitmap) {
+                return;
+            }
+            mBitmap = null;
+        }
+        invalidateBounds();
+    }
+
+    /**
+     * Getter Bitmap
+     *
+     * @return Bitmap to be drawn, or null if it is not ready.
+     */
+    public Bitmap getBitmap() {
+        return mBitmap;
+    }
+
     /**
      * Draw a Bitmap in device-specific pixel density.
      *
@@ -59,10 +169,35 @@ public class BitmapDrawer extends BaseDrawer {
      */
     public BitmapDrawer dpSize(@NonNull Context context) {
         mDpSize = true;
-        mBitmapDpWidth = Util.convertPixelsToDp(mBitmap.getWidth(), context);
-        mBitmapDpHeight = Util.convertPixelsToDp(mBitmap.getHeight(), context);
-        mBitmapRect = new Rect(0, 0, mBitmap.getWidth(), mBitmap.getHeight());
-        mDpSizeRect = new RectF();
+        mDpRatio = Util.convertPixelsToDp(1f, context);
+        invalidateBounds();
+        if (mRotationCache != null) {
+            mRotationCache.clear();
+        }
+        return this;
+    }
+
+    /**
+     * see {@link #rotationCache(float, int)}
+     *
+     * @param angleStep The angle step of a pre-rotated variant in degrees
+     * @return this
+     */
+    public BitmapDrawer rotationCache(float angleStep) {
+        return rotationCache(angleStep, Constant.DEFAULT_ROTATION_CACHE_MAX_BYTES);
+    }
+
+    /**
+     * Pre-render rotated variants of the Bitmap every angleStep degrees in the background.
+     * The rotation is rounded to the nearest variant, which is drawn without rotating the canvas.
+     * Until the variant is ready, the canvas is rotated as usual.
+     *
+     * @param angleStep The angle step of a pre-rotated variant in degrees
+     * @param maxBytes  The memory cap of pre-rotated variants in bytes. The least recently used variant is evicted.
+     * @return this
+     */
+    public BitmapDrawer rotationCache(float angleStep, int maxBytes) {
+        mRotationCache = new RotatedBitmapCache(angleStep, maxBytes);
         return this;
     }
 
@@ -89,46 +224,83 @@ public class BitmapDrawer extends BaseDrawer {
      */
     public BitmapDrawer rotateRegistration(float regX, float regY) {
         setRotateRegistration(regX, regY);
+        if (mRotationCache != null) {
+            mRotationCache.clear();
+        }
         return this;
     }
 
     @Override
     public float getWidth() {
-        return mBitmap == null ?
+        Bitmap bitmap = mBitmap;
+        return bitmap == null ?
                 0 :
-                mDpSize ? mBitmapDpWidth : mBitmap.getWidth();
+                mDpSize ? bitmap.getWidth() * mDpRatio : bitmap.getWidth();
     }
 
     @Override
     public float getHeight() {
-        return mBitmap == null ?
+        Bitmap bitmap = mBitmap;
+        return bitmap == null ?
                 0 :
-                mDpSize ? mBitmapDpHeight : mBitmap.getHeight();
+                mDpSize ? bitmap.getHeight() * mDpRatio : bitmap.getHeight();
+    }
+
+    @Override
+    public void draw(Canvas canvas, float x, float y, int alpha, float scaleX, float scaleY, float rotation) {
+        Bitmap bitmap = mBitmap;
+        if (mRotationCache == null || bitmap == null || bitmap.isRecycled()) {
+            super.draw(canvas, x, y, alpha, scaleX, scaleY, rotation);
+            return;
+        }
+
+        int bucket = mRotationCache.bucketOf(rotation);
+        if (bucket == 0) {
+            super.draw(canvas, x, y, alpha, scaleX, scaleY, 0);
+            return;
+        }
+
+        RotatedBitmapCache.Variant variant = mRotationCache.get(0, bucket, bitmap, null, getCachedWidth(), getCachedHeight(), mRotateRegistrationX, mRotateRegistrationY);
+        if (variant == null) {
+            super.draw(canvas, x, y, alpha, scaleX, scaleY, rotation);
+        } else {
+            drawRotatedVariant(canvas, variant, x, y, alpha, scaleX, scaleY);
+        }
+    }
+
+    /**
+     * Pure translation is snapped to whole pixels, so the unfiltered Bitmap is drawn without resampling.
+     */
+    @Override
+    protected void drawTranslated(Canvas canvas, float x, float y, int alpha) {
+        draw(canvas, Math.round(x), Math.round(y), alpha);
     }
 
     @Override
     protected void draw(Canvas canvas, float x, float y, int alpha) {
-        if (mBitmap == null) {
+        Bitmap bitmap = mBitmap;
+        if (bitmap == null) {
             return;
         }
 
-        if (mBitmap.isRecycled()) {
-            mBitmap = null;
+        if (bitmap.isRecycled()) {
+            clearRecycledBitmap(bitmap);
             return;
         }
 
         mPaint.setAlpha(alpha);
 
         if (mDpSize) {
+            mBitmapRect.set(0, 0, bitmap.getWidth(), bitmap.getHeight());
             mDpSizeRect.set(
                     x,
                     y,
-                    x + mBitmapDpWidth,
-                    y + mBitmapDpHeight
+                    x + bitmap.getWidth() * mDpRatio,
+                    y + bitmap.getHeight() * mDpRatio
             );
-            canvas.drawBitmap(mBitmap, mBitmapRect, mDpSizeRect, mPaint);
+            canvas.drawBitmap(bitmap, mBitmapRect, mDpSizeRect, mPaint);
         } else {
-            canvas.drawBitmap(mBitmap, x, y, mPaint);
+            canvas.drawBitmap(bitmap, x, y, mPaint);
         }
     }
 }
@@ -45,6 +45,7 @@ public class CustomDrawer extends BaseDrawer {
 
         /**
          * return the width of the object to be drawn.
+         * The width is cached, so call {@link CustomDrawer#invalidateBounds()} when it has changed.
          *
          * @return width
          */
@@ -52,6 +53,7 @@ public class CustomDrawer extends BaseDrawer {
 
         /**
          * return the height of the object to be drawn.
+         * The height is cached, so call {@link CustomDrawer#invalidateBounds()} when it has changed.
          *
          * @return height
          */
@@ -0,0 +1,216 @@
+package com.daasuu.library.drawer;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.support.annotation.NonNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A fixed set of characters rasterised once into a single bitmap.
+ * Atlases are shared among drawers whose Paint has the same typeface, size, color and style.
+ */
+final class GlyphAtlas {
+
+    /**
+     * The maximum width of the atlas bitmap in pixels. Glyphs wrap to the next row beyond this.
+     */
+    private static final int MAX_ATLAS_WIDTH = 1024;
+
+    private static final Map<Key, WeakReference<GlyphAtlas>> sAtlases = new HashMap<>();
+
+    final Bitmap bitmap;
+
+    /**
+     * The index of the glyph of each character. -1 if the character is not in the atlas.
+     */
+    private final int[] mGlyphIndex;
+
+    /**
+     * The source rectangle of each glyph (left, top, right, bottom).
+     */
+    private final int[] mCellRects;
+
+    /**
+     * The horizontal offset of each cell from the pen position.
+     */
+    private final float[] mCellLefts;
+
+    /**
+     * The advance width of each glyph.
+     */
+    private final float[] mAdvances;
+
+    /**
+     * The vertical offset of each cell from the baseline.
+     */
+    final float cellTop;
+
+    /**
+     * Return the atlas for the Paint and the characters, rasterising it only if there is no atlas to share.
+     *
+     * @param paint Style and color and typeface .. etc information
+     * @param chars The characters to be rasterised
+     * @return atlas
+     */
+    static GlyphAtlas obtain(@NonNull Paint paint, @NonNull String chars) {
+        Key key = new Key(paint.getTypeface(), createStyleKey(paint, chars));
+        synchronized (sAtlases) {
+            WeakReference<GlyphAtlas> reference = sAtlases.get(key);
+            GlyphAtlas atlas = reference == null ? null : reference.get();
+            if (atlas == null || atlas.bitmap.isRecycled()) {
+                removeClearedAtlases();
+                atlas = new GlyphAtlas(paint, chars);
+                sAtlases.put(key, new WeakReference<>(atlas));
+            }
+            return atlas;
+        }
+    }
+
+    /**
+     * Remove the entries of the atlases which are no longer used by any drawer.
+     */
+    private static void removeClearedAtlases() {
+        Iterator<WeakReference<GlyphAtlas>> iterator = sAtlases.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().get() == null) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Return the key of the Paint except the typeface, which is compared by {@link Key}.
+     */
+    private static String createStyleKey(Paint paint, String chars) {
+        return paint.getTextSize() +
+                "/" + (paint.getColor() | 0xFF000000) +
+                "/" + paint.getFlags() +
+                "/" + paint.getStyle() +
+                "/" + paint.getStrokeWidth() +
+                "/" + paint.getTextScaleX() +
+                "/" + paint.getTextSkewX() +
+                "/" + chars;
+    }
+
+    private GlyphAtlas(Paint textPaint, String chars) {
+        Paint paint = new Paint(textPaint);
+        paint.setAlpha(255);
+        // cells are laid out from the pen position, whatever the align of the Paint of the drawer is
+        paint.setTextAlign(Paint.Align.LEFT);
+
+        Paint.FontMetrics fontMetrics = paint.getFontMetrics();
+        cellTop = fontMetrics.top;
+        int cellHeight = (int) Math.ceil(fontMetrics.bottom - fontMetrics.top) + 1;
+
+        int glyphNum = chars.length();
+        char maxChar = 0;
+        for (int i = 0; i < glyphNum; i++) {
+            maxChar = (char) Math.max(maxChar, chars.charAt(i));
+        }
+        mGlyphIndex = new int[maxChar + 1];
+        Arrays.fill(mGlyphIndex, -1);
+
+        mCellRects = new int[glyphNum * 4];
+        mCellLefts = new float[glyphNum];
+        mAdvances = new float[glyphNum];
+
+        // layout cells in rows
+        Rect bounds = new Rect();
+        int penX = 0;
+        int penY = 0;
+        int atlasWidth = 1;
+        for (int i = 0; i < glyphNum; i++) {
+            String glyph = chars.substring(i, i + 1);
+            paint.getTextBounds(glyph, 0, 1, bounds);
+            mAdvances[i] = paint.measureText(glyph);
+            mCellLefts[i] = Math.min(0, bounds.left);
+            int cellWidth = (int) Math.ceil(Math.max(mAdvances[i], bounds.right) - mCellLefts[i]) + 1;
+
+            if (penX > 0 && penX + cellWidth > MAX_ATLAS_WIDTH) {
+                penX = 0;
+                penY += cellHeight;
+            }
+            mCellRects[i * 4] = penX;
+            mCellRects[i * 4 + 1] = penY;
+            mCellRects[i * 4 + 2] = penX + cellWidth;
+            mCellRects[i * 4 + 3] = penY + cellHeight;
+            mGlyphIndex[chars.charAt(i)] = i;
+
+            penX += cellWidth;
+            atlasWidth = Math.max(atlasWidth, penX);
+        }
+
+        bitmap = Bitmap.createBitmap(atlasWidth, penY + cellHeight, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        for (int i = 0; i < glyphNum; i++) {
+            canvas.drawText(chars, i, i + 1, mCellRects[i * 4] - mCellLefts[i], mCellRects[i * 4 + 1] - cellTop, paint);
+        }
+    }
+
+    /**
+     * Return the index of the glyph.
+     *
+     * @param c character
+     * @return index of the glyph, or -1 if the character is not in the atlas
+     */
+    int indexOf(char c) {
+        return c < mGlyphIndex.length ? mGlyphIndex[c] : -1;
+    }
+
+    float advanceOf(int glyph) {
+        return mAdvances[glyph];
+    }
+
+    float cellLeftOf(int glyph) {
+        return mCellLefts[glyph];
+    }
+
+    /**
+     * Set the source rectangle of the glyph.
+     *
+     * @param glyph index of the glyph
+     * @param rect  the rectangle to be set
+     */
+    void getCellRect(int glyph, Rect rect) {
+        int i = glyph * 4;
+        rect.set(mCellRects[i], mCellRects[i + 1], mCellRects[i + 2], mCellRects[i + 3]);
+    }
+
+    /**
+     * The key of an atlas. The typeface is compared as an object, so different typefaces never share an atlas.
+     */
+    private static final class Key {
+        private final Typeface typeface;
+        private final String style;
+
+        private Key(Typeface typeface, String style) {
+            this.typeface = typeface;
+            this.style = style;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return (typeface == null ? key.typeface == null : typeface.equals(key.typeface)) && style.equals(key.style);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (typeface == null ? 0 : typeface.hashCode()) + style.hashCode();
+        }
+    }
+}
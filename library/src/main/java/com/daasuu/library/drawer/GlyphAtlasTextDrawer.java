@@ -0,0 +1,242 @@
+package com.daasuu.library.drawer;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class for drawing rapidly changing text such as scores and timers on canvas.
+ * A fixed set of characters is rasterised once into an atlas shared per Paint, and the text is drawn
+ * by blitting the glyph cells. Changing the value allocates no String and does no text layout.
+ */
+public class GlyphAtlasTextDrawer extends BaseDrawer {
+
+    /**
+     * The characters which are always in the atlas.
+     */
+    public static final String DEFAULT_GLYPHS = "0123456789.,:-+ ";
+
+    private static final int DEFAULT_CAPACITY = 20;
+
+    private final GlyphAtlas mAtlas;
+
+    private final Paint mBitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    /**
+     * Characters to be drawn. Only the first mLength characters are used.
+     */
+    private char[] mChars = new char[DEFAULT_CAPACITY];
+
+    private int mLength = 0;
+
+    /**
+     * The value or the characters set last, which are not applied by the drawing thread yet, or null.
+     */
+    private final AtomicReference<PendingText> mPendingText = new AtomicReference<>();
+
+    /**
+     * A PendingText applied by the drawing thread, reused by the next setter so setting does not allocate.
+     */
+    private final AtomicReference<PendingText> mSparePendingText = new AtomicReference<>();
+
+    private float mWidth;
+
+    /**
+     * Adjustment values for drawing the canvas coordinates ( 0, 0 )
+     */
+    private final float mAdjustTextMesureY;
+
+    private final Rect mCellRect = new Rect();
+
+    private final RectF mDstRect = new RectF();
+
+    /**
+     * Constructor
+     *
+     * @param paint Style and color and typeface .. etc information
+     */
+    public GlyphAtlasTextDrawer(@NonNull Paint paint) {
+        this(paint, "");
+    }
+
+    /**
+     * Constructor
+     *
+     * @param paint      Style and color and typeface .. etc information
+     * @param extraChars The characters to be rasterised in addition to {@link #DEFAULT_GLYPHS}
+     */
+    public GlyphAtlasTextDrawer(@NonNull Paint paint, @NonNull String extraChars) {
+        super(paint);
+        mAtlas = GlyphAtlas.obtain(paint, DEFAULT_GLYPHS + extraChars);
+        mAdjustTextMesureY = paint.getTextSize();
+    }
+
+    /**
+     * Set the integer value to be drawn. The value is formatted on the drawing thread without allocation.
+     *
+     * @param value value to be drawn
+     */
+    public void setValue(long value) {
+        PendingText pendingText = obtainPendingText();
+        pendingText.isValue = true;
+        pendingText.value = value;
+        postPendingText(pendingText);
+    }
+
+    /**
+     * Set the characters to be drawn. The characters are copied, so the array can be reused by the caller,
+     * and they are applied on the drawing thread. Characters which are not in the atlas are skipped.
+     *
+     * @param text   characters to be drawn
+     * @param offset index of the first character
+     * @param length number of characters
+     */
+    public void setText(@NonNull char[] text, int offset, int length) {
+        PendingText pendingText = obtainPendingText();
+        pendingText.isValue = false;
+        if (pendingText.chars.length < length) {
+            pendingText.chars = new char[length];
+        }
+        System.arraycopy(text, offset, pendingText.chars, 0, length);
+        pendingText.length = length;
+        postPendingText(pendingText);
+    }
+
+    private PendingText obtainPendingText() {
+        PendingText pendingText = mSparePendingText.getAndSet(null);
+        return pendingText != null ? pendingText : new PendingText();
+    }
+
+    /**
+     * Replace the pending text. The one replaced before it was applied is reused.
+     */
+    private void postPendingText(PendingText pendingText) {
+        PendingText replaced = mPendingText.getAndSet(pendingText);
+        if (replaced != null) {
+            mSparePendingText.set(replaced);
+        }
+        invalidateBounds();
+    }
+
+    @Override
+    protected void draw(Canvas canvas, float x, float y, int alpha) {
+        updatePendingText();
+
+        mBitmapPaint.setAlpha(alpha);
+
+        float penX = x;
+        float top = y + mAdjustTextMesureY + mAtlas.cellTop;
+        for (int i = 0; i < mLength; i++) {
+            int glyph = mAtlas.indexOf(mChars[i]);
+            if (glyph < 0) {
+                continue;
+            }
+            mAtlas.getCellRect(glyph, mCellRect);
+            float left = penX + mAtlas.cellLeftOf(glyph);
+            mDstRect.set(left, top, left + mCellRect.width(), top + mCellRect.height());
+            canvas.drawBitmap(mAtlas.bitmap, mCellRect, mDstRect, mBitmapPaint);
+            penX += mAtlas.advanceOf(glyph);
+        }
+    }
+
+    @Override
+    public float getWidth() {
+        updatePendingText();
+        return mWidth;
+    }
+
+    @Override
+    public float getHeight() {
+        return mAdjustTextMesureY;
+    }
+
+    /**
+     * Copy the characters set by {@link #setText(char[], int, int)}, or format the value set by {@link #setValue(long)}
+     * into the characters. This is called only from the drawing thread.
+     */
+    private void updatePendingText() {
+        PendingText pendingText = mPendingText.getAndSet(null);
+        if (pendingText == null) {
+            return;
+        }
+        if (pendingText.isValue) {
+            formatValue(pendingText.value);
+        } else {
+            if (mChars.length < pendingText.length) {
+                mChars = new char[pendingText.length];
+            }
+            System.arraycopy(pendingText.chars, 0, mChars, 0, pendingText.length);
+            mLength = pendingText.length;
+        }
+        mSparePendingText.set(pendingText);
+        measure();
+    }
+
+    private void formatValue(long value) {
+        // digits are written from the end of the buffer
+        int pos = mChars.length;
+        boolean negative = value < 0;
+        do {
+            int digit = (int) (value % 10);
+            mChars[--pos] = (char) ('0' + (negative ? -digit : digit));
+            value /= 10;
+        } while (value != 0);
+        if (negative) {
+            mChars[--pos] = '-';
+        }
+
+        mLength = mChars.length - pos;
+        System.arraycopy(mChars, pos, mChars, 0, mLength);
+    }
+
+    private void measure() {
+        float width = 0;
+        for (int i = 0; i < mLength; i++) {
+            int glyph = mAtlas.indexOf(mChars[i]);
+            if (glyph >= 0) {
+                width += mAtlas.advanceOf(glyph);
+            }
+        }
+        mWidth = width;
+    }
+
+    /**
+     * A value or characters passed from a setter to the drawing thread.
+     */
+    private static final class PendingText {
+        private boolean isValue;
+        private long value;
+        private char[] chars = new char[DEFAULT_CAPACITY];
+        private int length;
+    }
+
+    /**
+     * The left offset and y offset for this display object's registration point. For example, to make a 100x100px Bitmap scale
+     * around its center, you would set regX and regY to 50.
+     *
+     * @param regX The horizontal rotate registration point in pixels
+     * @param regY The vertical rotate registration point in pixels
+     * @return this
+     */
+    public GlyphAtlasTextDrawer scaleRegistration(float regX, float regY) {
+        setScaleRegistration(regX, regY);
+        return this;
+    }
+
+    /**
+     * The left offset and y offset for this display object's registration point. For example, to make a 100x100px Bitmap rotate
+     * around its center, you would set regX and regY to 50.
+     *
+     * @param regX The horizontal rotate registration point in pixels
+     * @param regY The vertical rotate registration point in pixels
+     * @return this
+     */
+    public GlyphAtlasTextDrawer rotateRegistration(float regX, float regY) {
+        setRotateRegistration(regX, regY);
+        return this;
+    }
+}
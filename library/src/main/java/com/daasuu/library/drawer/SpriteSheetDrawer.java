@@ -5,8 +5,11 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Rect;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 
+import com.daasuu.library.cache.BitmapCache;
+import com.daasuu.library.cache.RotatedBitmapCache;
 import com.daasuu.library.callback.AnimCallBack;
 import com.daasuu.library.constant.Constant;
 import com.daasuu.library.spritesheet.SpriteSheet;
@@ -22,7 +25,24 @@ public class SpriteSheetDrawer extends BaseDrawer {
     /**
      * Bitmap to be drawn in FPSTextureView or FPSSurfaceView.
      */
-    private Bitmap mBitmap;
+    private volatile Bitmap mBitmap;
+
+    /**
+     * The handle of {@link BitmapCache} which mBitmap belongs to, or null if mBitmap is not cached.
+     */
+    private BitmapCache.Handle mBitmapHandle;
+
+    /**
+     * If true, {@link #release()} has been called, so a handle set later is released at once.
+     */
+    private boolean mReleased = false;
+
+    /**
+     * The size of a pixel of the SpriteSheet coordinates in pixels of Bitmap, for a sheet sampled down when decoded.
+     */
+    private volatile float mSourceScaleX = 1f;
+
+    private volatile float mSourceScaleY = 1f;
 
     /**
      * If true, Draw a Bitmap in device-specific pixel density.
@@ -70,6 +90,48 @@ public class SpriteSheetDrawer extends BaseDrawer {
      */
     private int mFrequency = Constant.DEFAULT_FREQUENCY;
 
+    /**
+     * Frames per second of the sprite animation. If greater than 0, the frame is derived from elapsed time
+     * instead of advancing every mFrequency ticks.
+     */
+    private float mSpriteFps = 0;
+
+    /**
+     * The time when the frame was updated last in milliseconds, or -1 if the clock is not started.
+     */
+    private long mLastFrameTime = -1;
+
+    /**
+     * Elapsed time which is not enough for a frame yet, in milliseconds.
+     */
+    private double mElapsedTime = 0;
+
+    /**
+     * The speed of the sprite animation, as a percentage of 1.
+     */
+    private float mTimeScale = 1f;
+
+    /**
+     * Scaled ticks which are not enough for a tick yet.
+     */
+    private float mTickRemainder = 0;
+
+    /**
+     * The frame number of the sheet and the table which mBitmapRect was set from.
+     */
+    private int mBitmapRectFrame = -1;
+
+    private int[] mBitmapRectTable;
+
+    private float mBitmapRectScaleX = 1f;
+
+    private float mBitmapRectScaleY = 1f;
+
+    /**
+     * Pre-rotated variants of each frame. If null, the canvas is rotated every frame.
+     */
+    private RotatedBitmapCache mRotationCache;
+
 
     /**
      * Constructor
@@ -103,13 +165,116 @@ public class SpriteSheetDrawer extends BaseDrawer {
      * @param spriteSheet The SpriteSheet instance to play back. This includes frame dimensions, and frame data.
      */
     public SpriteSheetDrawer(@NonNull Bitmap bitmap, @NonNull SpriteSheet spriteSheet) {
-        super(new Paint());
+        this(spriteSheet);
         this.mBitmap = bitmap;
+    }
+
+    /**
+     * Constructor of a placeholder, which draws nothing until {@link #setBitmap(Bitmap)} is called.
+     * The animation is played back from the beginning when the Bitmap is set.
+     *
+     * @param spriteSheet The SpriteSheet instance to play back. This includes frame dimensions, and frame data.
+     */
+    public SpriteSheetDrawer(@NonNull SpriteSheet spriteSheet) {
+        super(new Paint());
         this.mSpriteSheet = spriteSheet;
         mBitmapRect = new Rect();
         mBounds = new Rect();
     }
 
+    /**
+     * Replace Bitmap. This can be called from any thread, for example when the Bitmap has been decoded in the background.
+     * The handle of the previous cached Bitmap is released.
+     *
+     * @param bitmap Bitmap to be drawn in FPSTextureView or FPSSurfaceView.
+     */
+    public void setBitmap(Bitmap bitmap) {
+        setBitmap(bitmap, 1f, 1f);
+    }
+
+    /**
+     * Replace Bitmap whose size differs from the size which the frame dimensions of the SpriteSheet are based on.
+     * For example, if the sheet is sampled down to half when decoded, sourceScale is 0.5.
+     *
+     * @param bitmap      Bitmap to be drawn in FPSTextureView or FPSSurfaceView.
+     * @param sourceScale The size of a pixel of the SpriteSheet coordinates in pixels of Bitmap
+     */
+    public void setBitmap(Bitmap bitmap, float sourceScale) {
+        setBitmap(bitmap, sourceScale, sourceScale);
+    }
+
+    /**
+     * Replace Bitmap which is scaled differently in width and height from the size which the frame dimensions
+     * of the SpriteSheet are based on.
+     *
+     * @param bitmap       Bitmap to be drawn in FPSTextureView or FPSSurfaceView.
+     * @param sourceScaleX The width of a pixel of the SpriteSheet coordinates in pixels of Bitmap
+     * @param sourceScaleY The height of a pixel of the SpriteSheet coordinates in pixels of Bitmap
+     */
+    public void setBitmap(Bitmap bitmap, float sourceScaleX, float sourceScaleY) {
+        replaceBitmap(bitmap, null, sourceScaleX, sourceScaleY);
+    }
+
+    /**
+     * Replace Bitmap with a cached one. This can be called from any thread.
+     * The handle of the previous cached Bitmap is released, and the new handle is released by {@link #release()}.
+     *
+     * @param handle       handle of {@link BitmapCache}
+     * @param sourceScaleX The width of a pixel of the SpriteSheet coordinates in pixels of Bitmap
+     * @param sourceScaleY The height of a pixel of the SpriteSheet coordinates in pixels of Bitmap
+     */
+    public void setBitmapHandle(@NonNull BitmapCache.Handle handle, float sourceScaleX, float sourceScaleY) {
+        replaceBitmap(handle.getBitmap(), handle, sourceScaleX, sourceScaleY);
+    }
+
+    /**
+     * Stop drawing the Bitmap and release the handle of the cached Bitmap, so the cache can evict it.
+     * Call this when the drawer is no longer used. A handle set after this, for example by a load which finishes later,
+     * is released at once instead of being drawn.
+     */
+    public void release() {
+        synchronized (this) {
+            mReleased = true;
+        }
+        replaceBitmap(null, null, 1f, 1f);
+    }
+
+    private void replaceBitmap(Bitmap bitmap, BitmapCache.Handle handle, float sourceScaleX, float sourceScaleY) {
+        boolean rejected;
+        BitmapCache.Handle previous = null;
+        synchronized (this) {
+            rejected = mReleased && handle != null;
+            if (!rejected) {
+                previous = mBitmapHandle;
+                mBitmapHandle = handle;
+                mSourceScaleX = sourceScaleX;
+                mSourceScaleY = sourceScaleY;
+                mBitmap = bitmap;
+            }
+        }
+        if (rejected) {
+            // loaded after the drawer was released, so nobody else would release it
+            handle.release();
+            return;
+        }
+        if (previous != null && previous != handle) {
+            previous.release();
+        }
+        invalidateBounds();
+        if (mRotationCache != null) {
+            mRotationCache.clear();
+        }
+    }
+
+    /**
+     * Getter Bitmap
+     *
+     * @return Bitmap to be drawn, or null if it is not ready.
+     */
+    public Bitmap getBitmap() {
+        return mBitmap;
+    }
+
 
     /**
      * Draw a Bitmap in device-specific pixel density.
@@ -122,6 +287,34 @@ public class SpriteSheetDrawer extends BaseDrawer {
 
         mBitmapDpWidth = Util.convertPixelsToDp(mSpriteSheet.frameWidth, context);
         mBitmapDpHeight = Util.convertPixelsToDp(mSpriteSheet.frameHeight, context);
+        invalidateBounds();
+        if (mRotationCache != null) {
+            mRotationCache.clear();
+        }
+        return this;
+    }
+
+    /**
+     * see {@link #rotationCache(float, int)}
+     *
+     * @param angleStep The angle step of a pre-rotated variant in degrees
+     * @return this
+     */
+    public SpriteSheetDrawer rotationCache(float angleStep) {
+        return rotationCache(angleStep, Constant.DEFAULT_ROTATION_CACHE_MAX_BYTES);
+    }
+
+    /**
+     * Pre-render rotated variants of each frame every angleStep degrees in the background.
+     * The rotation is rounded to the nearest variant, which is drawn without rotating the canvas.
+     * Until the variant is ready, the canvas is rotated as usual.
+     *
+     * @param angleStep The angle step of a pre-rotated variant in degrees
+     * @param maxBytes  The memory cap of pre-rotated variants in bytes. The least recently used variant is evicted.
+     * @return this
+     */
+    public SpriteSheetDrawer rotationCache(float angleStep, int maxBytes) {
+        mRotationCache = new RotatedBitmapCache(angleStep, maxBytes);
         return this;
     }
 
@@ -147,17 +340,73 @@ public class SpriteSheetDrawer extends BaseDrawer {
         return this;
     }
 
+    /**
+     * Play the Sprite Animation at its own frame rate, independently of the fps of FPSTextureView or FPSSurfaceView.
+     * The current frame is derived from elapsed time, so frames are skipped to catch up when ticks are dropped.
+     * {@link #frequency(int)} is ignored in this mode.
+     *
+     * @param fps frames per second of the Sprite Animation, or 0 to advance one frame every frequency ticks.
+     * @return this
+     */
+    public SpriteSheetDrawer spriteFps(float fps) {
+        mSpriteFps = fps;
+        mLastFrameTime = -1;
+        return this;
+    }
+
     /**
      * It will animation play in the frame number order of the value of this array.
      *
      * @param list Integer List of Frame num.
      * @return this
+     * @throws IllegalArgumentException if list is empty
      */
     public SpriteSheetDrawer customFrameList(List<Integer> list) {
+        if (list != null && list.isEmpty()) {
+            throw new IllegalArgumentException("The custom frames must not be empty.");
+        }
         mSpriteSheet.customFrameList = list;
         return this;
     }
 
+    /**
+     * It will animation play in the frame number order of the value of this array.
+     * The array is not copied, so it must not be changed during playback.
+     *
+     * @param frames frame numbers of the sheet
+     * @return this
+     * @throws IllegalArgumentException if frames is empty
+     */
+    public SpriteSheetDrawer customFrames(int[] frames) {
+        mSpriteSheet.setCustomFrames(frames);
+        return this;
+    }
+
+    /**
+     * Play back only the frames between start and end, inclusive.
+     * The positions are in the custom frames if they are set, otherwise in the frames of the sheet.
+     *
+     * @param start position of the first frame
+     * @param end   position of the last frame
+     * @return this
+     */
+    public SpriteSheetDrawer playRange(int start, int end) {
+        mSpriteSheet.setPlayRange(start, end);
+        return this;
+    }
+
+    /**
+     * If true, the Sprite Animation plays forward to the last frame and then backward to the first frame.
+     * A loop ends when the first frame is reached again.
+     *
+     * @param pingPong If true, play back and forth.
+     * @return this
+     */
+    public SpriteSheetDrawer pingPong(boolean pingPong) {
+        mSpriteSheet.pingPong = pingPong;
+        return this;
+    }
+
     /**
      * If loopNum is 3, the Sprite Animation will loop 3 times.
      * If loopNum is greater than or equal to 0 , spriteLoop parameter is ignored .
@@ -205,6 +454,9 @@ public class SpriteSheetDrawer extends BaseDrawer {
      */
     public SpriteSheetDrawer rotateRegistration(float regX, float regY) {
         setRotateRegistration(regX, regY);
+        if (mRotationCache != null) {
+            mRotationCache.clear();
+        }
         return this;
     }
 
@@ -226,19 +478,98 @@ public class SpriteSheetDrawer extends BaseDrawer {
         return mSpriteSheet.isSpritePause();
     }
 
+    /**
+     * Rewind the Sprite Animation to the first frame, and restart the clock of time-based playback.
+     */
     @Override
-    protected void draw(Canvas canvas, float x, float y, int alpha) {
-        if (mBitmap == null) return;
+    public void reset() {
+        mSpriteSheet.rewind();
+        mDrawingNum = Constant.DEFAULT_DRAWING_NUM;
+        mLastFrameTime = -1;
+        mElapsedTime = 0;
+        mTickRemainder = 0;
+    }
 
-        if (mBitmap.isRecycled()) {
-            mBitmap = null;
+    /**
+     * The Sprite Animation is animating until it is paused or reaches its end.
+     */
+    @Override
+    public boolean isAnimating() {
+        return !mSpriteSheet.isSpritePause() && !mSpriteSheet.isFinished();
+    }
+
+    @Override
+    public void setTimeScale(float timeScale) {
+        mTimeScale = timeScale;
+    }
+
+    /**
+     * Advance the Sprite Animation, once the Bitmap is ready.
+     */
+    @Override
+    public void update() {
+        if (mBitmap != null) {
+            updateSpriteFrame();
+        }
+    }
+
+    @Override
+    public void draw(Canvas canvas, float x, float y, int alpha, float scaleX, float scaleY, float rotation) {
+        Bitmap bitmap = mBitmap;
+        if (bitmap == null) return;
+
+        if (bitmap.isRecycled()) {
+            clearRecycledBitmap(bitmap);
             return;
         }
 
-        mPaint.setAlpha(alpha);
+        int frame = mSpriteSheet.getFrameIndex();
+        int[] rects = mSpriteSheet.getFrameRects();
+        float sourceScaleX = mSourceScaleX;
+        float sourceScaleY = mSourceScaleY;
+        if (frame != mBitmapRectFrame || rects != mBitmapRectTable
+                || sourceScaleX != mBitmapRectScaleX || sourceScaleY != mBitmapRectScaleY) {
+            int offset = frame * 4;
+            if (sourceScaleX == 1f && sourceScaleY == 1f) {
+                mBitmapRect.set(rects[offset], rects[offset + 1], rects[offset + 2], rects[offset + 3]);
+            } else {
+                mBitmapRect.set(
+                        (int) (rects[offset] * sourceScaleX),
+                        (int) (rects[offset + 1] * sourceScaleY),
+                        (int) (rects[offset + 2] * sourceScaleX),
+                        (int) (rects[offset + 3] * sourceScaleY));
+            }
+            mBitmapRectFrame = frame;
+            mBitmapRectTable = rects;
+            mBitmapRectScaleX = sourceScaleX;
+            mBitmapRectScaleY = sourceScaleY;
+        }
+
+        if (mRotationCache == null) {
+            super.draw(canvas, x, y, alpha, scaleX, scaleY, rotation);
+            return;
+        }
 
-        updateSpriteFrame();
-        mBitmapRect.set((int) (mSpriteSheet.dx), (int) (mSpriteSheet.dy), (int) (mSpriteSheet.dx + mSpriteSheet.frameWidth), (int) (mSpriteSheet.dy + mSpriteSheet.frameHeight));
+        int bucket = mRotationCache.bucketOf(rotation);
+        if (bucket == 0) {
+            super.draw(canvas, x, y, alpha, scaleX, scaleY, 0);
+            return;
+        }
+
+        RotatedBitmapCache.Variant variant = mRotationCache.get(frame, bucket, bitmap, mBitmapRect, getCachedWidth(), getCachedHeight(), mRotateRegistrationX, mRotateRegistrationY);
+        if (variant == null) {
+            super.draw(canvas, x, y, alpha, scaleX, scaleY, rotation);
+        } else {
+            drawRotatedVariant(canvas, variant, x, y, alpha, scaleX, scaleY);
+        }
+    }
+
+    @Override
+    protected void draw(Canvas canvas, float x, float y, int alpha) {
+        Bitmap bitmap = mBitmap;
+        if (bitmap == null) return;
+
+        mPaint.setAlpha(alpha);
 
         if (mDpSize) {
 
@@ -248,7 +579,7 @@ public class SpriteSheetDrawer extends BaseDrawer {
                     (int) (x + mBitmapDpWidth),
                     (int) (y + mBitmapDpHeight)
             );
-            canvas.drawBitmap(mBitmap, mBitmapRect, mBounds, mPaint);
+            canvas.drawBitmap(bitmap, mBitmapRect, mBounds, mPaint);
 
         } else {
 
@@ -258,22 +589,62 @@ public class SpriteSheetDrawer extends BaseDrawer {
                     (int) (x + mSpriteSheet.frameWidth),
                     (int) (y + mSpriteSheet.frameHeight)
             );
-            canvas.drawBitmap(mBitmap, mBitmapRect, mBounds, mPaint);
+            canvas.drawBitmap(bitmap, mBitmapRect, mBounds, mPaint);
         }
 
     }
 
+    /**
+     * Stop drawing the recycled Bitmap, unless it has been replaced in the meantime.
+     */
+    private synchronized void clearRecycledBitmap(Bitmap bitmap) {
+        if (mBitmap == bitmap) {
+            mBitmap = null;
+        }
+    }
+
     /**
      * Move frame of SpriteSheet
      */
-    private synchronized void updateSpriteFrame() {
-        if (mDrawingNum != mFrequency) {
-            mDrawingNum++;
+    private void updateSpriteFrame() {
+        if (mSpriteFps > 0) {
+            updateSpriteFrameByTime(SystemClock.uptimeMillis());
             return;
         }
-        mDrawingNum = Constant.DEFAULT_DRAWING_NUM;
 
-        mSpriteSheet.updateFrame();
+        mTickRemainder += mTimeScale;
+        while (mTickRemainder >= 1f) {
+            mTickRemainder -= 1f;
+            if (mDrawingNum != mFrequency) {
+                mDrawingNum++;
+                continue;
+            }
+            mDrawingNum = Constant.DEFAULT_DRAWING_NUM;
+
+            mSpriteSheet.updateFrame();
+        }
+    }
+
+    /**
+     * Move frames of SpriteSheet by the time elapsed since the last update.
+     * The clock is restarted while the animation is paused, so it does not jump when resumed.
+     */
+    private void updateSpriteFrameByTime(long now) {
+        if (mLastFrameTime < 0 || mSpriteSheet.isSpritePause()) {
+            mLastFrameTime = now;
+            mElapsedTime = 0;
+            return;
+        }
+
+        mElapsedTime += (now - mLastFrameTime) * (double) mTimeScale;
+        mLastFrameTime = now;
+
+        double frameDuration = 1000.0 / mSpriteFps;
+        int frames = (int) (mElapsedTime / frameDuration);
+        if (frames > 0) {
+            mElapsedTime -= frames * frameDuration;
+            mSpriteSheet.advance(frames);
+        }
     }
 
     @Override
@@ -1,7 +1,10 @@
 package com.daasuu.library.drawer;
 
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.support.annotation.NonNull;
 
 /**
@@ -12,13 +15,51 @@ public class TextDrawer extends BaseDrawer {
     /**
      * String text to be drawn in FPSTextureView or FPSSurfaceView.
      */
-    private String mText;
+    private volatile String mText;
 
     /**
      * Adjustment values ​​for drawing the canvas coordinates ( 0, 0 )
      */
     private float mAdjustTextMesureY = -1;
 
+    /**
+     * The text which mWidth and mTextBitmap are made from. If it differs from mText, the cache is stale.
+     */
+    private String mCachedText;
+
+    /**
+     * If true, the cache is stale because the Paint has been changed.
+     */
+    private volatile boolean mInvalidated = false;
+
+    /**
+     * Measured width of the text.
+     */
+    private float mWidth;
+
+    /**
+     * If true, the text is rasterised into a bitmap once, and the bitmap is drawn every frame.
+     */
+    private boolean mBitmapCache = false;
+
+    /**
+     * Rasterised text. It is reused as long as the new text fits in it.
+     */
+    private Bitmap mTextBitmap;
+
+    /**
+     * The offset of mTextBitmap from the drawing position in pixels
+     */
+    private float mTextBitmapLeft;
+
+    private float mTextBitmapTop;
+
+    private Paint mBitmapPaint;
+
+    private final Rect mTextBounds = new Rect();
+
+    private final Paint.FontMetrics mFontMetrics = new Paint.FontMetrics();
+
     /**
      * Constructor
      *
@@ -40,17 +81,70 @@ public class TextDrawer extends BaseDrawer {
         mAdjustTextMesureY = paint.getTextSize();
     }
 
+    /**
+     * If true, the text is rasterised into a bitmap when it is changed, and the bitmap is drawn every frame
+     * instead of laying out the glyphs.
+     *
+     * @param bitmapCache If true, rasterise the text.
+     * @return this
+     */
+    public TextDrawer bitmapCache(boolean bitmapCache) {
+        mBitmapCache = bitmapCache;
+        mInvalidated = true;
+        return this;
+    }
+
+    /**
+     * Setter text. The cached width and bitmap are updated only when the text is changed.
+     * Setting the equal text is ignored.
+     *
+     * @param text String text to be drawn in FPSTextureView or FPSSurfaceView.
+     */
+    public void setText(@NonNull String text) {
+        if (!text.equals(mText)) {
+            mText = text;
+            invalidateBounds();
+        }
+    }
+
+    /**
+     * Getter text
+     *
+     * @return String text to be drawn in FPSTextureView or FPSSurfaceView.
+     */
+    public String getText() {
+        return mText;
+    }
+
+    /**
+     * Discard the cached width and bitmap. Call this after the size, typeface or color of the Paint has been changed.
+     */
+    public void invalidateTextCache() {
+        mInvalidated = true;
+        invalidateBounds();
+    }
+
     @Override
     protected void draw(Canvas canvas, float x, float y, int alpha) {
-        if (mText != null) {
+        if (mText == null) {
+            return;
+        }
+
+        updateCache();
+
+        if (mTextBitmap != null) {
+            mBitmapPaint.setAlpha(alpha);
+            canvas.drawBitmap(mTextBitmap, x + mTextBitmapLeft, y + mAdjustTextMesureY + mTextBitmapTop, mBitmapPaint);
+        } else {
             mPaint.setAlpha(alpha);
-            canvas.drawText(mText, x, y + mAdjustTextMesureY, mPaint);
+            canvas.drawText(mCachedText, x, y + mAdjustTextMesureY, mPaint);
         }
     }
 
     @Override
     public float getWidth() {
-        return mPaint.measureText(mText);
+        updateCache();
+        return mWidth;
     }
 
     @Override
@@ -58,6 +152,61 @@ public class TextDrawer extends BaseDrawer {
         return mAdjustTextMesureY;
     }
 
+    /**
+     * Measure and rasterise the text again only when the text or the Paint has been changed.
+     */
+    private void updateCache() {
+        String text = mText;
+        if (text == mCachedText && !mInvalidated) {
+            return;
+        }
+
+        mInvalidated = false;
+        mCachedText = text;
+        mAdjustTextMesureY = mPaint.getTextSize();
+        mWidth = mPaint.measureText(text);
+
+        if (mBitmapCache) {
+            rasterize(text);
+        } else {
+            mTextBitmap = null;
+        }
+    }
+
+    private void rasterize(String text) {
+        mPaint.getFontMetrics(mFontMetrics);
+        mPaint.getTextBounds(text, 0, text.length(), mTextBounds);
+
+        float left = Math.min(0, mTextBounds.left);
+        float right = Math.max(mWidth, mTextBounds.right);
+        int width = (int) Math.ceil(right - left) + 1;
+        int height = (int) Math.ceil(mFontMetrics.bottom - mFontMetrics.top) + 1;
+
+        if (mTextBitmap != null && mTextBitmap.getWidth() >= width && mTextBitmap.getHeight() >= height) {
+            mTextBitmap.eraseColor(Color.TRANSPARENT);
+        } else {
+            try {
+                mTextBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            } catch (OutOfMemoryError e) {
+                // fall back to drawText
+                mTextBitmap = null;
+                return;
+            }
+        }
+
+        if (mBitmapPaint == null) {
+            mBitmapPaint = new Paint();
+        }
+
+        mTextBitmapLeft = left;
+        mTextBitmapTop = mFontMetrics.top;
+
+        int alpha = mPaint.getAlpha();
+        mPaint.setAlpha(255);
+        new Canvas(mTextBitmap).drawText(text, -left, -mFontMetrics.top, mPaint);
+        mPaint.setAlpha(alpha);
+    }
+
     /**
      * The left offset and y offset for this display object's registration point. For example, to make a 100x100px Bitmap scale
      * around its center, you would set regX and regY to 50.
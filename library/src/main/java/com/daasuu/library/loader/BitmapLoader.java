@@ -0,0 +1,289 @@
+package com.daasuu.library.loader;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.NonNull;
+
+import com.daasuu.library.FrameFence;
+import com.daasuu.library.cache.BitmapCache;
+import com.daasuu.library.callback.BitmapCallBack;
+import com.daasuu.library.constant.Constant;
+import com.daasuu.library.drawer.BitmapDrawer;
+import com.daasuu.library.drawer.SpriteSheetDrawer;
+import com.daasuu.library.spritesheet.SpriteSheet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Decodes bitmap resources on a bounded pool of background threads, so adding a display object never blocks on I/O or decoding.
+ * Images are sampled down to the required size, and bitmaps given back by {@link #recycle(Bitmap)} are reused as inBitmap.
+ * Drawers are shared through {@link BitmapCache}, so the same resource with the same required size is decoded once,
+ * even if it is requested again while it is being decoded, and bitmaps evicted from the cache are reused as inBitmap
+ * once the frames which may still draw them have finished.
+ * The density of the resource is ignored, the size of the decoded bitmap is derived only from the pixels of the image.
+ */
+public class BitmapLoader {
+    private static final String TAG = BitmapLoader.class.getSimpleName();
+
+    /**
+     * At most two workers, leaving a core for the UI thread and the drawing thread.
+     */
+    private static final int WORKER_NUM = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static BitmapLoader sInstance;
+
+    private final Resources mResources;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private final ReusableBitmapPool mReusableBitmapPool = new ReusableBitmapPool(Constant.BITMAP_REUSE_POOL_MAX_BYTES);
+
+    /**
+     * The targets waiting for each key being decoded, so a key is not decoded twice at the same time. Guarded by itself.
+     */
+    private final HashMap<BitmapCache.Key, List<HandleTarget>> mLoading = new HashMap<>();
+
+    private final ExecutorService mExecutor = Executors.newFixedThreadPool(WORKER_NUM, new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            Thread thread = new Thread(r, "FPSAnimator-" + TAG);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    /**
+     * Return the process-wide instance.
+     *
+     * @param context Activity or view context
+     * @return BitmapLoader
+     */
+    public static synchronized BitmapLoader getInstance(@NonNull Context context) {
+        if (sInstance == null) {
+            sInstance = new BitmapLoader(context.getApplicationContext().getResources());
+        }
+        return sInstance;
+    }
+
+    private BitmapLoader(Resources resources) {
+        mResources = resources;
+        BitmapCache.getInstance().setOnEvictedListener(new BitmapCache.OnEvictedListener() {
+            @Override
+            public void onEvicted(@NonNull final Bitmap bitmap) {
+                // a drawer may have released the bitmap while a view is drawing it
+                FrameFence.runAfterFrames(new Runnable() {
+                    @Override
+                    public void run() {
+                        recycle(bitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Decode the resource in the background. The bitmap is not cached, it belongs to the caller.
+     *
+     * @param resId     resource id of the image
+     * @param reqWidth  The required width in pixels. The image is sampled down as long as it is not smaller than this. 0 for no sampling.
+     * @param reqHeight The required height in pixels. The image is sampled down as long as it is not smaller than this. 0 for no sampling.
+     * @param callBack  called on the UI thread with the decoded bitmap
+     */
+    public void load(@DrawableRes final int resId, final int reqWidth, final int reqHeight, @NonNull final BitmapCallBack callBack) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = decode(resId, reqWidth, reqHeight);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callBack.call(bitmap);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Return a BitmapDrawer of the cached bitmap, or a BitmapDrawer which draws nothing until the resource is decoded in the background.
+     * The drawer holds a handle of {@link BitmapCache}, call {@link BitmapDrawer#release()} when it is no longer drawn.
+     *
+     * @param resId     resource id of the image
+     * @param reqWidth  The required width in pixels. 0 for no sampling.
+     * @param reqHeight The required height in pixels. 0 for no sampling.
+     * @return BitmapDrawer
+     */
+    public BitmapDrawer loadBitmapDrawer(@DrawableRes int resId, int reqWidth, int reqHeight) {
+        final BitmapDrawer drawer = new BitmapDrawer();
+        loadCached(new BitmapCache.Key(resId, reqWidth, reqHeight), new HandleTarget() {
+            @Override
+            public void onLoaded(@NonNull BitmapCache.Handle handle) {
+                drawer.setBitmapHandle(handle);
+            }
+        });
+        return drawer;
+    }
+
+    /**
+     * Return a SpriteSheetDrawer which draws nothing until the resource is decoded in the background.
+     * The frame sizes of the SpriteSheet are in the coordinates of the sheet scaled to sheetWidth x sheetHeight,
+     * so they do not depend on how much the image is sampled down.
+     *
+     * @param resId       resource id of the image
+     * @param spriteSheet The SpriteSheet instance to play back.
+     * @param sheetWidth  The width of the whole sheet which the frame sizes are based on, in pixels
+     * @param sheetHeight The height of the whole sheet which the frame sizes are based on, in pixels
+     * @return SpriteSheetDrawer
+     */
+    public SpriteSheetDrawer loadSpriteSheetDrawer(@DrawableRes int resId, @NonNull SpriteSheet spriteSheet, final int sheetWidth, final int sheetHeight) {
+        final SpriteSheetDrawer drawer = new SpriteSheetDrawer(spriteSheet);
+        loadCached(new BitmapCache.Key(resId, sheetWidth, sheetHeight), new HandleTarget() {
+            @Override
+            public void onLoaded(@NonNull BitmapCache.Handle handle) {
+                // the sides are scaled separately, since the sampled-down size is rounded on each side
+                Bitmap bitmap = handle.getBitmap();
+                drawer.setBitmapHandle(handle, (float) bitmap.getWidth() / sheetWidth, (float) bitmap.getHeight() / sheetHeight);
+            }
+        });
+        return drawer;
+    }
+
+    /**
+     * Give back a mutable bitmap which is no longer drawn, so its memory is reused to decode another image.
+     *
+     * @param bitmap bitmap which is no longer drawn
+     */
+    public void recycle(Bitmap bitmap) {
+        mReusableBitmapPool.put(bitmap);
+    }
+
+    /**
+     * Give the target a handle of the cached bitmap now, or after the resource has been decoded and cached in the background.
+     * If the key is being decoded already, the target waits for it instead of decoding it again.
+     */
+    private void loadCached(final BitmapCache.Key key, HandleTarget target) {
+        BitmapCache.Handle handle;
+        synchronized (mLoading) {
+            handle = BitmapCache.getInstance().acquire(key);
+            if (handle == null) {
+                List<HandleTarget> targets = mLoading.get(key);
+                if (targets == null) {
+                    targets = new ArrayList<>(1);
+                    mLoading.put(key, targets);
+                    mExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            decodeCached(key);
+                        }
+                    });
+                }
+                targets.add(target);
+                return;
+            }
+        }
+        target.onLoaded(handle);
+    }
+
+    /**
+     * Decode and cache the resource, and give a handle to each target waiting for it. Nothing is given if decoding failed.
+     * This is called on a worker thread.
+     */
+    private void decodeCached(BitmapCache.Key key) {
+        Bitmap bitmap = decode(key.getResId(), key.getReqWidth(), key.getReqHeight());
+        List<HandleTarget> targets;
+        BitmapCache.Handle handle = null;
+        synchronized (mLoading) {
+            targets = mLoading.remove(key);
+            if (bitmap != null) {
+                handle = BitmapCache.getInstance().put(key, bitmap);
+            }
+        }
+        if (handle == null) {
+            return;
+        }
+        for (HandleTarget target : targets) {
+            target.onLoaded(handle.duplicate());
+        }
+        handle.release();
+    }
+
+    /**
+     * Decode the resource sampled down to the required size, reusing a bitmap of the pool if possible.
+     * This is called on a worker thread.
+     *
+     * @return decoded bitmap, or null if decoding failed
+     */
+    Bitmap decode(@DrawableRes int resId, int reqWidth, int reqHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inScaled = false;
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(mResources, resId, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inMutable = true;
+        options.inBitmap = mReusableBitmapPool.take(
+                (options.outWidth + sampleSize - 1) / sampleSize,
+                (options.outHeight + sampleSize - 1) / sampleSize,
+                sampleSize,
+                Bitmap.Config.ARGB_8888);
+
+        try {
+            return BitmapFactory.decodeResource(mResources, resId, options);
+        } catch (IllegalArgumentException e) {
+            // the bitmap could not be reused
+            options.inBitmap = null;
+        } catch (OutOfMemoryError e) {
+            mReusableBitmapPool.clear();
+            options.inBitmap = null;
+        }
+
+        try {
+            return BitmapFactory.decodeResource(mResources, resId, options);
+        } catch (OutOfMemoryError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Receives a handle of a cached bitmap, and releases it when it is no longer drawn.
+     */
+    private interface HandleTarget {
+        void onLoaded(@NonNull BitmapCache.Handle handle);
+    }
+
+    /**
+     * Return the largest power of two which keeps both sides not smaller than the required size.
+     *
+     * @param width     The width of the image in pixels
+     * @param height    The height of the image in pixels
+     * @param reqWidth  The required width in pixels
+     * @param reqHeight The required height in pixels
+     * @return inSampleSize
+     */
+    static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        if (reqWidth <= 0 || reqHeight <= 0) {
+            return 1;
+        }
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= reqWidth && height / (sampleSize * 2) >= reqHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+}
@@ -0,0 +1,104 @@
+package com.daasuu.library.loader;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Mutable bitmaps which are no longer drawn, kept to be passed to BitmapFactory.Options.inBitmap.
+ * The oldest bitmap is dropped when the total size exceeds the memory cap.
+ */
+final class ReusableBitmapPool {
+
+    private final long mMaxBytes;
+
+    private long mBytes;
+
+    private final LinkedList<Bitmap> mBitmaps = new LinkedList<>();
+
+    ReusableBitmapPool(long maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Add a bitmap. Immutable or recycled bitmaps are ignored.
+     *
+     * @param bitmap bitmap which is no longer drawn
+     */
+    synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() || mBitmaps.contains(bitmap)) {
+            return;
+        }
+        long bytes = sizeOf(bitmap);
+        if (bytes > mMaxBytes) {
+            return;
+        }
+
+        mBitmaps.addLast(bitmap);
+        mBytes += bytes;
+        while (mBytes > mMaxBytes) {
+            mBytes -= sizeOf(mBitmaps.removeFirst());
+        }
+    }
+
+    /**
+     * Remove and return a bitmap which can be reused to decode an image of the given size.
+     *
+     * @param width      The width of the decoded image in pixels
+     * @param height     The height of the decoded image in pixels
+     * @param sampleSize inSampleSize of the decoding
+     * @param config     The config of the decoded image
+     * @return reusable bitmap, or null
+     */
+    synchronized Bitmap take(int width, int height, int sampleSize, Bitmap.Config config) {
+        Iterator<Bitmap> iterator = mBitmaps.iterator();
+        while (iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            if (bitmap.isRecycled()) {
+                iterator.remove();
+                mBytes -= sizeOf(bitmap);
+                continue;
+            }
+            if (canReuse(bitmap, width, height, sampleSize, config)) {
+                iterator.remove();
+                mBytes -= sizeOf(bitmap);
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    synchronized void clear() {
+        mBitmaps.clear();
+        mBytes = 0;
+    }
+
+    private static boolean canReuse(Bitmap bitmap, int width, int height, int sampleSize, Bitmap.Config config) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return (long) width * height * bytesPerPixel(config) <= bitmap.getAllocationByteCount();
+        }
+        // Before KITKAT, only a bitmap of the same size can be reused, without sampling.
+        return bitmap.getWidth() == width && bitmap.getHeight() == height && sampleSize == 1;
+    }
+
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    static long sizeOf(Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return bitmap.getAllocationByteCount();
+        }
+        return (long) bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        }
+        if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        }
+        return 4;
+    }
+}
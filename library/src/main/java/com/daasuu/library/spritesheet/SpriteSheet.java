@@ -1,5 +1,6 @@
 package com.daasuu.library.spritesheet;
 
+import com.daasuu.library.CallbackQueue;
 import com.daasuu.library.callback.AnimCallBack;
 import com.daasuu.library.constant.Constant;
 
@@ -57,14 +58,25 @@ public class SpriteSheet {
 
     /**
      * It will animation play in the frame number order of the value of this array.
+     * It is converted to an int array once, see {@link #setCustomFrames(int[])}.
      */
     public List<Integer> customFrameList;
 
+    /**
+     * If true, the animation plays forward to the last frame of the range and then backward to the first frame.
+     */
+    public boolean pingPong = false;
+
     /**
      * Dispatched when an animation reaches its ends.
      */
     private AnimCallBack mSpriteSheetFinishCallback;
 
+    /**
+     * If true, mSpriteSheetFinishCallback has been dispatched and is not dispatched again until {@link #rewind()}.
+     */
+    private boolean mCallbackDispatched = false;
+
     /**
      * Number of SpriteSheet Animation loop
      */
@@ -72,10 +84,56 @@ public class SpriteSheet {
 
     private int currentLoopNum = 0;
 
+    /**
+     * Source rectangles of each frame of the sheet, as left, top, right and bottom in pixels.
+     */
+    private int[] mFrameRects;
+
+    /**
+     * The geometry which mFrameRects was built from.
+     */
+    private float mTableFrameWidth;
+
+    private float mTableFrameHeight;
+
+    private int mTableFrameNumPerLine;
+
+    /**
+     * Frame numbers of the sheet in the order of playback. If null, the frames are played in the order of the sheet.
+     */
+    private int[] mCustomFrames;
+
+    /**
+     * customFrameList which mCustomFrames was converted from.
+     */
+    private List<Integer> mConvertedFrameList;
+
+    /**
+     * The first and the last position of the range to be played back. -1 means the whole sequence.
+     */
+    private int mRangeStart = -1;
+
+    private int mRangeEnd = -1;
+
+    /**
+     * The position in the sequence of the frame to be drawn.
+     */
+    private int mPosition = 0;
+
+    /**
+     * 1 while playing forward, -1 while playing backward in ping-pong playback.
+     */
+    private int mStep = 1;
+
+    /**
+     * If true, the animation has stopped at its end.
+     */
+    private boolean mFinished = false;
+
     /**
      * indicates whether to start the SpriteAnimation paused.
      */
-    protected boolean mSpritePause = false;
+    protected volatile boolean mSpritePause = false;
 
     /**
      * Getter mSpritePause
@@ -95,6 +153,15 @@ public class SpriteSheet {
         this.mSpritePause = mSpritePause;
     }
 
+    /**
+     * Whether the animation has stopped at its end.
+     *
+     * @return true if finished
+     */
+    public boolean isFinished() {
+        return mFinished;
+    }
+
     /**
      * constructor
      *
@@ -117,99 +184,234 @@ public class SpriteSheet {
      */
     public void setSpriteSheetFinishCallback(AnimCallBack spriteSheetFinishCallback) {
         this.mSpriteSheetFinishCallback = spriteSheetFinishCallback;
+        mCallbackDispatched = false;
     }
 
     /**
-     * Move frame of SpriteSheet
+     * Rewind the animation to the first frame of the range, as if it had never been played.
+     * The loop count and the finish callback are restored, and the pause is cleared.
      */
-    public void updateFrame() {
-        if (mSpritePause) return;
+    public void rewind() {
+        mSpritePause = false;
+        mCallbackDispatched = false;
+        updateCustomFrames();
+        resetFrame();
+    }
 
-        if (customFrameList != null) {
-            updateCustomFrame();
+    /**
+     * Set the frame numbers of the sheet in the order of playback.
+     * The array is not copied, so it must not be changed during playback.
+     *
+     * @param frames frame numbers, or null to play the frames in the order of the sheet
+     * @throws IllegalArgumentException if frames is empty
+     */
+    public void setCustomFrames(int[] frames) {
+        if (frames != null && frames.length == 0) {
+            throw new IllegalArgumentException("The custom frames must not be empty.");
+        }
+        mCustomFrames = frames;
+        mConvertedFrameList = customFrameList;
+        mFrameRects = null;
+        resetFrame();
+    }
+
+    /**
+     * Play back only the frames between start and end of the sequence, inclusive.
+     * The sequence is the custom frames if they are set, otherwise the frames of the sheet.
+     *
+     * @param start position of the first frame
+     * @param end   position of the last frame
+     */
+    public void setPlayRange(int start, int end) {
+        mRangeStart = start;
+        mRangeEnd = end;
+        resetFrame();
+    }
+
+    /**
+     * Getter the frame number of the sheet to be drawn.
+     *
+     * @return frame number of the sheet
+     */
+    public int getFrameIndex() {
+        updateCustomFrames();
+        return mCustomFrames != null ? mCustomFrames[mPosition] : mPosition;
+    }
+
+    /**
+     * Getter the table of the source rectangles of each frame of the sheet.
+     * The rectangle of frame n is left = table[n * 4], top = table[n * 4 + 1], right = table[n * 4 + 2], bottom = table[n * 4 + 3].
+     *
+     * @return the table of the source rectangles
+     */
+    public int[] getFrameRects() {
+        updateCustomFrames();
+        if (mFrameRects == null
+                || mTableFrameWidth != frameWidth
+                || mTableFrameHeight != frameHeight
+                || mTableFrameNumPerLine != frameNumPerLine
+                || mFrameRects.length < frameNum * 4) {
+            buildFrameRects();
+        }
+        return mFrameRects;
+    }
+
+    private void buildFrameRects() {
+        int tableFrameNum = frameNum;
+        if (mCustomFrames != null) {
+            for (int frame : mCustomFrames) {
+                tableFrameNum = Math.max(tableFrameNum, frame + 1);
+            }
+        }
+
+        int[] rects = new int[tableFrameNum * 4];
+        for (int i = 0; i < tableFrameNum; i++) {
+            float left = frameWidth * (i % frameNumPerLine);
+            float top = frameHeight * (i / frameNumPerLine);
+            rects[i * 4] = (int) left;
+            rects[i * 4 + 1] = (int) top;
+            rects[i * 4 + 2] = (int) (left + frameWidth);
+            rects[i * 4 + 3] = (int) (top + frameHeight);
+        }
+
+        mTableFrameWidth = frameWidth;
+        mTableFrameHeight = frameHeight;
+        mTableFrameNumPerLine = frameNumPerLine;
+        mFrameRects = rects;
+    }
+
+    /**
+     * Convert customFrameList to an int array only when it has been replaced.
+     */
+    private void updateCustomFrames() {
+        if (customFrameList == mConvertedFrameList) {
             return;
         }
 
-        if (currentFrame > frameNum + 2) return;
+        int[] frames = null;
+        // an empty list assigned to the field plays the frames in the order of the sheet, rather than failing while drawing
+        if (customFrameList != null && !customFrameList.isEmpty()) {
+            frames = new int[customFrameList.size()];
+            for (int i = 0; i < frames.length; i++) {
+                frames[i] = customFrameList.get(i);
+            }
+        }
+        setCustomFrames(frames);
+    }
 
-        boolean edge = currentFrame % frameNumPerLine == 0;
-        if (edge) {
-            // It falls under the case of the end
-            currentFrame++;
-            if (currentFrame <= frameNum) {
-                dy += frameHeight;
-                dx = 0;
+    private int getRangeFirst() {
+        return mRangeStart < 0 ? 0 : mRangeStart;
+    }
+
+    private int getRangeLast() {
+        int length = mCustomFrames != null ? mCustomFrames.length : frameNum;
+        return mRangeEnd < 0 || mRangeEnd >= length ? length - 1 : mRangeEnd;
+    }
+
+    /**
+     * Move frame of SpriteSheet
+     */
+    public void updateFrame() {
+        if (mSpritePause || mFinished) return;
+
+        updateCustomFrames();
+        int first = getRangeFirst();
+        int last = getRangeLast();
+        if (last < first) return;
+
+        boolean bounce = pingPong && last > first;
+        int next = mPosition + mStep;
+        if (next > last) {
+            if (bounce) {
+                mStep = -1;
+                next = last - 1;
+            } else {
+                next = first;
             }
+        } else if (next < first) {
+            mStep = 1;
+            next = Math.min(first + 1, last);
+        }
+        setPosition(next);
+
+        boolean cycleEnd = bounce ? mStep < 0 && next == first : next == last;
+        if (cycleEnd) {
             repeatFrame();
-            return;
         }
+    }
 
-        currentFrame++;
-        if (currentFrame <= frameNum) {
-            dx += frameWidth;
+    /**
+     * Move frames of SpriteSheet. Every frame on the way is visited, so the end of each loop is counted
+     * and the callback is dispatched even if the last frame is never drawn.
+     * When it loops forever, whole loops beyond the first one are skipped.
+     *
+     * @param frames the number of frames to move
+     */
+    public void advance(int frames) {
+        if (frames <= 0) return;
+
+        if (spriteLoop && spriteLoopNum <= 0) {
+            updateCustomFrames();
+            int first = getRangeFirst();
+            int last = getRangeLast();
+            int cycleLength = pingPong && last > first ? (last - first) * 2 : last - first + 1;
+            if (cycleLength > 0 && frames > cycleLength) {
+                frames = cycleLength + frames % cycleLength;
+            }
+        }
+
+        for (int i = 0; i < frames && !mFinished && !mSpritePause; i++) {
+            updateFrame();
         }
-        repeatFrame();
     }
 
     /**
-     * Repeat frame of SpriteSheet
+     * Called when the last frame of a cycle is reached.
      */
     protected void repeatFrame() {
-        if (currentFrame != frameNum) return;
-
         if (spriteLoopNum > 0) {
             currentLoopNum++;
-            if (spriteLoopNum == currentLoopNum) {
+            if (currentLoopNum >= spriteLoopNum) {
+                mFinished = true;
                 dispatchCallback();
-                return;
             }
-            resetFrame();
             return;
         }
 
-        if (spriteLoop) {
-            resetFrame();
-        } else {
-            currentFrame = frameNum;
+        if (!spriteLoop) {
+            mFinished = true;
         }
 
         dispatchCallback();
+    }
+
+    private void setPosition(int position) {
+        mPosition = position;
+        currentFrame = position + 1;
 
+        int[] rects = getFrameRects();
+        int offset = getFrameIndex() * 4;
+        dx = rects[offset];
+        dy = rects[offset + 1];
     }
 
     private void resetFrame() {
-        currentFrame = Constant.DEFAULT_CURRENT_FRAME;
-        dx = 0;
-        dy = 0;
+        mStep = 1;
+        mFinished = false;
+        currentLoopNum = 0;
+        if (getRangeLast() >= getRangeFirst()) {
+            setPosition(getRangeFirst());
+        }
     }
 
     private void dispatchCallback() {
-        if (mSpriteSheetFinishCallback != null) {
-            mSpriteSheetFinishCallback.call();
+        if (mSpriteSheetFinishCallback != null && !mCallbackDispatched) {
+            CallbackQueue.dispatch(mSpriteSheetFinishCallback);
             if (!spriteLoop || spriteLoopNum > 0) {
                 //　SpriteSheetFinishCallback is called only once.
-                mSpriteSheetFinishCallback = null;
+                mCallbackDispatched = true;
             }
         }
     }
 
-    /**
-     * Move frame of SpriteSheet by customFrameList
-     */
-    protected void updateCustomFrame() {
-
-        if (currentFrame > customFrameList.size()) {
-            if (!spriteLoop) return;
-            currentFrame = Constant.DEFAULT_CURRENT_FRAME;
-        }
-
-        int currentNum = customFrameList.get(currentFrame - 1);
-
-        dx = frameWidth * (currentNum % frameNumPerLine);
-        dy = frameHeight * (currentNum / frameNumPerLine);
-
-        currentFrame++;
-
-    }
-
 }
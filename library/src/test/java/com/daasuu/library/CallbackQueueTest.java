@@ -0,0 +1,126 @@
+package com.daasuu.library;
+
+import com.daasuu.library.callback.AnimCallBack;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class CallbackQueueTest {
+
+    private final List<String> mCalls = new ArrayList<>();
+
+    /**
+     * Runs the drains only when asked, so the test decides when the consumer runs.
+     */
+    private final ArrayDeque<Runnable> mDrains = new ArrayDeque<>();
+
+    private final Executor mExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            mDrains.add(command);
+        }
+    };
+
+    @After
+    public void tearDown() throws Exception {
+        CallbackQueue.end();
+    }
+
+    @Test
+    public void dispatch_callsInlineOutsideAFrame() throws Exception {
+        CallbackQueue.dispatch(record("a"));
+        assertCalls("a");
+    }
+
+    @Test
+    public void dispatch_defersToTheQueueOfTheFrame() throws Exception {
+        CallbackQueue queue = new CallbackQueue(4, mExecutor);
+        CallbackQueue.begin(queue);
+        CallbackQueue.dispatch(record("a"));
+        CallbackQueue.end();
+        CallbackQueue.dispatch(record("b"));
+        assertCalls("b");
+
+        queue.schedule();
+        runDrains();
+        assertCalls("b", "a");
+    }
+
+    @Test
+    public void overflow_isCalledAfterTheRing() throws Exception {
+        CallbackQueue queue = new CallbackQueue(2, mExecutor);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(record("" + i));
+        }
+        queue.schedule();
+        assertEquals(1, mDrains.size());
+        queue.schedule();
+        assertEquals(1, mDrains.size());
+
+        runDrains();
+        assertCalls("0", "1", "2", "3", "4");
+    }
+
+    @Test
+    public void callbacksQueuedWhileDraining_keepTheirOrder() throws Exception {
+        final CallbackQueue queue = new CallbackQueue(2, mExecutor);
+        queue.offer(new AnimCallBack() {
+            @Override
+            public void call() {
+                mCalls.add("a");
+                // the producer refills the ring while the consumer drains, and overflows
+                queue.offer(record("b"));
+                queue.offer(record("c"));
+                queue.offer(record("d"));
+                queue.offer(record("e"));
+            }
+        });
+        queue.schedule();
+        runDrains();
+        assertCalls("a", "b", "c", "d", "e");
+    }
+
+    @Test
+    public void callbacksQueuedAfterADrain_areDrainedAgain() throws Exception {
+        CallbackQueue queue = new CallbackQueue(2, mExecutor);
+        for (int i = 0; i < 3; i++) {
+            queue.offer(record("" + i));
+        }
+        queue.schedule();
+        runDrains();
+        for (int i = 3; i < 6; i++) {
+            queue.offer(record("" + i));
+        }
+        queue.schedule();
+        runDrains();
+        assertCalls("0", "1", "2", "3", "4", "5");
+    }
+
+    private void runDrains() {
+        Runnable drain;
+        while ((drain = mDrains.poll()) != null) {
+            drain.run();
+        }
+    }
+
+    private AnimCallBack record(final String name) {
+        return new AnimCallBack() {
+            @Override
+            public void call() {
+                mCalls.add(name);
+            }
+        };
+    }
+
+    private void assertCalls(String... calls) {
+        assertEquals(Arrays.asList(calls), mCalls);
+    }
+}
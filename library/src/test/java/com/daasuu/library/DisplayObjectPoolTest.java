@@ -0,0 +1,116 @@
+package com.daasuu.library;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DisplayObjectPoolTest {
+
+    private int mCreated;
+
+    private DisplayObjectPool<DisplayObject> create(int maxSize) {
+        return new DisplayObjectPool<>(maxSize, new DisplayObjectPool.Factory<DisplayObject>() {
+            @NonNull
+            @Override
+            public DisplayObject create() {
+                mCreated++;
+                return new DisplayObject();
+            }
+        });
+    }
+
+    @Test
+    public void obtain_createsWhenEmpty() throws Exception {
+        DisplayObjectPool<DisplayObject> pool = create(2);
+
+        DisplayObject a = pool.obtain();
+        DisplayObject b = pool.obtain();
+
+        assertNotSame(a, b);
+        assertEquals(2, mCreated);
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void obtain_reusesRecycledObject() throws Exception {
+        DisplayObjectPool<DisplayObject> pool = create(2);
+        DisplayObject a = pool.obtain();
+
+        pool.recycle(a);
+        assertEquals(1, pool.size());
+
+        assertSame(a, pool.obtain());
+        assertEquals(1, mCreated);
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void recycle_twiceKeepsOneEntry() throws Exception {
+        DisplayObjectPool<DisplayObject> pool = create(2);
+        DisplayObject a = pool.obtain();
+
+        pool.recycle(a);
+        pool.recycle(a);
+
+        assertEquals(1, pool.size());
+        assertSame(a, pool.obtain());
+        assertNotSame(a, pool.obtain());
+    }
+
+    @Test
+    public void recycle_ignoresObjectsOfOtherPools() throws Exception {
+        DisplayObjectPool<DisplayObject> pool = create(2);
+        DisplayObjectPool<DisplayObject> other = create(2);
+
+        pool.recycle(new DisplayObject());
+        pool.recycle(other.obtain());
+
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void recycle_keepsAtMostMaxSize() throws Exception {
+        DisplayObjectPool<DisplayObject> pool = create(1);
+        DisplayObject a = pool.obtain();
+        DisplayObject b = pool.obtain();
+
+        pool.recycle(a);
+        pool.recycle(b);
+        assertEquals(1, pool.size());
+
+        // the one left out can still be recycled later
+        assertSame(a, pool.obtain());
+        pool.recycle(b);
+        assertSame(b, pool.obtain());
+    }
+
+    @Test
+    public void clear_emptiesThePool() throws Exception {
+        DisplayObjectPool<DisplayObject> pool = create(2);
+        DisplayObject a = pool.obtain();
+        pool.recycle(a);
+
+        pool.clear();
+
+        assertEquals(0, pool.size());
+        assertNotSame(a, pool.obtain());
+        pool.recycle(a);
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void removeChild_returnsTheChildToThePool() throws Exception {
+        DisplayObjectPool<DisplayObject> pool = create(2);
+        DisplayObject a = pool.obtain();
+        Container container = new Container();
+
+        container.addChild(a);
+        assertEquals(0, pool.size());
+
+        container.removeChild(a);
+        assertEquals(1, pool.size());
+        assertSame(a, pool.obtain());
+    }
+}
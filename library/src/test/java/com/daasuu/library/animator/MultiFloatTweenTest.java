@@ -0,0 +1,179 @@
+package com.daasuu.library.animator;
+
+import com.daasuu.library.callback.AnimCallBack;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MultiFloatTweenTest {
+
+    private static final float DELTA = 0.001f;
+
+    private final float[] mValues = new float[3];
+
+    private final List<String> mCalls = new ArrayList<>();
+
+    @Test
+    public void initialValues_areWrittenIntoTheSlots() throws Exception {
+        new MultiFloatTween(mValues, 1, 5, 6);
+        assertEquals(0, mValues[0], DELTA);
+        assertEquals(5, mValues[1], DELTA);
+        assertEquals(6, mValues[2], DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void slotsOutOfTheArray_areRejected() throws Exception {
+        new MultiFloatTween(mValues, 2, 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongNumberOfValues_isRejected() throws Exception {
+        new MultiFloatTween(mValues, 0, 0, 0).to(100, 1);
+    }
+
+    @Test
+    public void tick_evaluatesTheTweens() throws Exception {
+        MultiFloatTween tween = new MultiFloatTween(mValues, 0, 0, 100)
+                .to(100, 10, 0)
+                .waitTime(100)
+                .to(200, 30, 40);
+        assertEquals(400, tween.getDuration());
+
+        tween.tick(50);
+        assertEquals(5, mValues[0], DELTA);
+        assertEquals(50, mValues[1], DELTA);
+        tween.tick(100);
+        assertEquals(10, mValues[0], DELTA);
+        assertEquals(0, mValues[1], DELTA);
+        tween.tick(150);
+        assertEquals(20, mValues[0], DELTA);
+        assertEquals(20, mValues[1], DELTA);
+        tween.tick(1000);
+        assertEquals(30, mValues[0], DELTA);
+        assertEquals(40, mValues[1], DELTA);
+        assertTrue(tween.isFinished());
+    }
+
+    @Test
+    public void zeroDuration_jumpsToTheValues() throws Exception {
+        MultiFloatTween tween = new MultiFloatTween(mValues, 0, 0).to(0, 7);
+        tween.tick(16);
+        assertEquals(7, mValues[0], DELTA);
+        assertTrue(tween.isFinished());
+    }
+
+    @Test
+    public void callbacks_areCalledInOrderWhenFramesAreSkipped() throws Exception {
+        MultiFloatTween tween = composeWithCallbacks();
+        tween.tick(1000);
+        assertCalls("A", "B", "C");
+    }
+
+    @Test
+    public void repeat_callsCallbacksOncePerPass() throws Exception {
+        MultiFloatTween tween = composeWithCallbacks().repeat(1);
+        for (int i = 0; i < 20; i++) {
+            tween.tick(50);
+        }
+        assertCalls("A", "B", "C", "A", "B", "C");
+        assertTrue(tween.isFinished());
+    }
+
+    @Test
+    public void yoyo_callsCallbacksAtStartsOnTheWayBack() throws Exception {
+        MultiFloatTween tween = composeWithCallbacks().yoyo(1);
+        tween.tick(300);
+        assertFalse(tween.isFinished());
+        tween.tick(150);
+        assertEquals(1.5f, mValues[0], DELTA);
+        tween.tick(1000);
+        assertCalls("A", "B", "C", "C", "B", "A");
+        assertEquals(0, mValues[0], DELTA);
+        assertTrue(tween.isFinished());
+    }
+
+    @Test
+    public void repeat_isAppliedInTheNextFrame() throws Exception {
+        MultiFloatTween tween = composeWithCallbacks();
+        tween.tick(350);
+        assertTrue(tween.isFinished());
+
+        tween.repeat(1);
+        tween.reset();
+        tween.tick(0);
+        tween.tick(1000);
+        assertCalls("A", "B", "C", "A", "B", "C", "A", "B", "C");
+    }
+
+    @Test
+    public void seek_skipsCallbacksJumpedOver() throws Exception {
+        MultiFloatTween tween = composeWithCallbacks();
+        tween.seekTo(150);
+        tween.tick(16);
+        assertEquals(1.5f, mValues[0], DELTA);
+        tween.tick(1000);
+        assertCalls("B", "C");
+    }
+
+    @Test
+    public void seek_firesCallbacksJumpedOver() throws Exception {
+        MultiFloatTween tween = composeWithCallbacks();
+        tween.setSeekCallbackPolicy(SeekCallbackPolicy.FIRE);
+        tween.tick(50);
+        tween.seekTo(200);
+        tween.tick(16);
+        assertCalls("A", "B");
+        tween.tick(1000);
+        assertCalls("A", "B", "C");
+    }
+
+    @Test
+    public void seekBackward_firesNoCallback() throws Exception {
+        MultiFloatTween tween = composeWithCallbacks();
+        tween.setSeekCallbackPolicy(SeekCallbackPolicy.FIRE);
+        tween.tick(250);
+        tween.seekTo(50);
+        tween.tick(16);
+        assertCalls("A", "B");
+        tween.tick(1000);
+        assertCalls("A", "B", "A", "B", "C");
+    }
+
+    @Test
+    public void pause_keepsTheValues() throws Exception {
+        MultiFloatTween tween = composeWithCallbacks();
+        tween.tick(50);
+        tween.pause(true);
+        tween.tick(1000);
+        assertEquals(0.5f, mValues[0], DELTA);
+        assertTrue(mCalls.isEmpty());
+    }
+
+    /**
+     * Three tweens of 100 ms to 1, 2 and 3.
+     */
+    private MultiFloatTween composeWithCallbacks() {
+        return new MultiFloatTween(mValues, 0, 0)
+                .to(100, 1).call(record("A"))
+                .to(100, 2).call(record("B"))
+                .to(100, 3).call(record("C"));
+    }
+
+    private AnimCallBack record(final String name) {
+        return new AnimCallBack() {
+            @Override
+            public void call() {
+                mCalls.add(name);
+            }
+        };
+    }
+
+    private void assertCalls(String... calls) {
+        assertEquals(Arrays.asList(calls), mCalls);
+    }
+}
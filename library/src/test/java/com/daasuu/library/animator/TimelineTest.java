@@ -0,0 +1,150 @@
+package com.daasuu.library.animator;
+
+import com.daasuu.library.AnimParameter;
+import com.daasuu.library.DisplayObject;
+import com.daasuu.library.callback.AnimCallBack;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimelineTest {
+
+    private Timeline mTimeline;
+
+    @Before
+    public void setUp() throws Exception {
+        mTimeline = new Timeline();
+        mTimeline.addTween(0, 1000);
+    }
+
+    @Test
+    public void labels_areFoundByPosition() throws Exception {
+        mTimeline.addLabel("end", 1000).addLabel("start", 0).addLabel("middle", 500);
+        assertEquals(0, mTimeline.getLabelPosition("start"));
+        assertEquals(500, mTimeline.getLabelPosition("middle"));
+        assertEquals(1000, mTimeline.getLabelPosition("end"));
+        assertEquals(-1, mTimeline.getLabelPosition("none"));
+
+        mTimeline.seek(499);
+        assertEquals("start", mTimeline.getCurrentLabel());
+        mTimeline.seek(500);
+        assertEquals("middle", mTimeline.getCurrentLabel());
+        mTimeline.seek(1000);
+        assertEquals("end", mTimeline.getCurrentLabel());
+    }
+
+    @Test
+    public void currentLabel_isNullBeforeTheFirstLabel() throws Exception {
+        mTimeline.addLabel("middle", 500);
+        assertNull(mTimeline.getCurrentLabel());
+    }
+
+    @Test
+    public void label_isMovedWhenAddedAgain() throws Exception {
+        mTimeline.addLabel("a", 100).addLabel("b", 300).addLabel("a", 500);
+        assertEquals(500, mTimeline.getLabelPosition("a"));
+        mTimeline.seek(400);
+        assertEquals("b", mTimeline.getCurrentLabel());
+        mTimeline.seek(600);
+        assertEquals("a", mTimeline.getCurrentLabel());
+    }
+
+    @Test
+    public void labelsAtTheSamePosition_lastAddedIsCurrent() throws Exception {
+        mTimeline.addLabel("first", 500).addLabel("second", 500);
+        mTimeline.seek(500);
+        assertEquals("second", mTimeline.getCurrentLabel());
+    }
+
+    @Test
+    public void seekToLabel() throws Exception {
+        mTimeline.addLabel("middle", 500);
+        mTimeline.seek("middle");
+        assertEquals(500, mTimeline.getPosition(), 0);
+        mTimeline.seek("none");
+        assertEquals(500, mTimeline.getPosition(), 0);
+    }
+
+    @Test
+    public void nestedTimeline_followsParent() throws Exception {
+        Timeline nested = new Timeline();
+        mTimeline.add(nested, 200);
+        nested.addTween(0, 1000);
+        assertEquals(1200, mTimeline.getDuration());
+
+        mTimeline.seek(700);
+        assertEquals(500, nested.getPosition(), 0);
+        mTimeline.seek(100);
+        assertEquals(0, nested.getPosition(), 0);
+    }
+
+    @Test
+    public void member_finishesAtTheEndOfItsRange() throws Exception {
+        TweenAnimator member = TweenAnimator.composer(new DisplayObject())
+                .timeline(mTimeline, 200)
+                .to(300, 10, 0)
+                .end();
+
+        mTimeline.seek(100);
+        assertFalse(member.isFinished());
+        mTimeline.seek(499);
+        assertFalse(member.isFinished());
+        mTimeline.seek(500);
+        assertTrue(member.isFinished());
+        assertFalse(mTimeline.isComplete());
+
+        mTimeline.reverse();
+        assertFalse(member.isFinished());
+        mTimeline.seek(200);
+        assertTrue(member.isFinished());
+    }
+
+    @Test
+    public void member_followsThePlayhead() throws Exception {
+        final int[] calls = new int[1];
+        TweenAnimator member = TweenAnimator.composer(new DisplayObject())
+                .timeline(mTimeline, 200)
+                .to(300, 30, 0)
+                .call(new AnimCallBack() {
+                    @Override
+                    public void call() {
+                        calls[0]++;
+                    }
+                })
+                .end();
+        // 10 ms a baked parameter
+        member.setUp(100);
+        AnimParameter parameter = new AnimParameter(0, 0);
+
+        mTimeline.seek(350);
+        member.updateAnimParam(parameter);
+        assertEquals(15f, parameter.x, 0.001f);
+
+        mTimeline.seek(600);
+        member.updateAnimParam(parameter);
+        member.updateAnimParam(parameter);
+        mTimeline.seek(900);
+        member.updateAnimParam(parameter);
+        assertEquals(1, calls[0]);
+
+        mTimeline.seek(0);
+        member.updateAnimParam(parameter);
+        assertEquals(0f, parameter.x, 0.001f);
+    }
+
+    @Test
+    public void tick_stopsAtTheEnd() throws Exception {
+        mTimeline.tick(600);
+        mTimeline.tick(600);
+        assertEquals(1000, mTimeline.getPosition(), 0);
+        assertTrue(mTimeline.isComplete());
+
+        mTimeline.reverse();
+        assertFalse(mTimeline.isComplete());
+        mTimeline.tick(1500);
+        assertEquals(0, mTimeline.getPosition(), 0);
+        assertTrue(mTimeline.isComplete());
+    }
+}
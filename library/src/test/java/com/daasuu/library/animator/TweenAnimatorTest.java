@@ -0,0 +1,257 @@
+package com.daasuu.library.animator;
+
+import com.daasuu.library.AnimParameter;
+import com.daasuu.library.DisplayObject;
+import com.daasuu.library.callback.AnimCallBack;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The callbacks of two 100 ms tweens baked at 10 ms a parameter.
+ */
+public class TweenAnimatorTest {
+
+    private final List<String> mCalls = new ArrayList<>();
+
+    private final AnimParameter mParameter = new AnimParameter(0, 0);
+
+    private TweenAnimator.Composer mComposer;
+
+    @Before
+    public void setUp() throws Exception {
+        mComposer = TweenAnimator.composer(new DisplayObject())
+                .to(100, 10, 0).call(record("A"))
+                .to(100, 20, 0).call(record("B"));
+    }
+
+    @Test
+    public void forward_callsCallbacksAtTheEndsOfTheTweens() throws Exception {
+        TweenAnimator animator = setUp(mComposer.end());
+        draw(animator, 9);
+        assertCalls();
+        draw(animator, 1);
+        assertCalls("A");
+        draw(animator, 10);
+        assertCalls("A", "B");
+        assertTrue(animator.isFinished());
+    }
+
+    @Test
+    public void finished_callsNoCallbackAgain() throws Exception {
+        TweenAnimator animator = setUp(mComposer.end());
+        draw(animator, 100);
+        assertCalls("A", "B");
+    }
+
+    @Test
+    public void tweenWithoutCallBack_isSkipped() throws Exception {
+        TweenAnimator animator = setUp(TweenAnimator.composer(new DisplayObject())
+                .to(100, 10, 0)
+                .to(100, 20, 0).call(record("B"))
+                .end());
+        draw(animator, 30);
+        assertCalls("B");
+    }
+
+    @Test
+    public void repeat_callsCallbacksOncePerPass() throws Exception {
+        TweenAnimator animator = setUp(mComposer.repeat(2).end());
+        draw(animator, 100);
+        assertCalls("A", "B", "A", "B", "A", "B");
+        assertTrue(animator.isFinished());
+    }
+
+    @Test
+    public void repeat_callsSkippedCallbacksAcrossWraps() throws Exception {
+        TweenAnimator animator = setUp(mComposer.repeat(2).end());
+        animator.setTimeScale(7);
+        draw(animator, 20);
+        assertCalls("A", "B", "A", "B", "A", "B");
+        assertTrue(animator.isFinished());
+    }
+
+    @Test
+    public void reverse_callsCallbacksAtTheStartsOfTheTweens() throws Exception {
+        TweenAnimator animator = setUp(mComposer.reverse().end());
+        draw(animator, 10);
+        assertCalls("B");
+        draw(animator, 20);
+        assertCalls("B", "A");
+        assertEquals(0f, mParameter.x, 0.001f);
+        assertTrue(animator.isFinished());
+    }
+
+    @Test
+    public void yoyo_callsCallbacksAtTheStartsOnTheWayBack() throws Exception {
+        TweenAnimator animator = setUp(mComposer.yoyo(1).end());
+        draw(animator, 20);
+        assertCalls("A", "B");
+        assertFalse(animator.isFinished());
+        draw(animator, 40);
+        assertCalls("A", "B", "B", "A");
+        assertEquals(0f, mParameter.x, 0.001f);
+        assertTrue(animator.isFinished());
+    }
+
+    @Test
+    public void yoyo_callsSkippedCallbacksAtTheTurn() throws Exception {
+        TweenAnimator animator = setUp(mComposer.yoyo(2).end());
+        animator.setTimeScale(7);
+        draw(animator, 20);
+        assertCalls("A", "B", "B", "A", "A", "B", "B", "A");
+    }
+
+    @Test
+    public void seek_skipsCallbacksJumpedOver() throws Exception {
+        TweenAnimator animator = setUp(mComposer.end());
+        draw(animator, 1);
+        animator.seekTo(150);
+        draw(animator, 30);
+        assertCalls("B");
+    }
+
+    @Test
+    public void seek_firesCallbacksJumpedOver() throws Exception {
+        TweenAnimator animator = setUp(mComposer.end());
+        animator.setSeekCallbackPolicy(SeekCallbackPolicy.FIRE);
+        draw(animator, 1);
+        animator.seekTo(150);
+        draw(animator, 1);
+        assertCalls("A");
+        draw(animator, 30);
+        assertCalls("A", "B");
+    }
+
+    @Test
+    public void seekBackward_callsCallbacksAgain() throws Exception {
+        TweenAnimator animator = setUp(mComposer.end());
+        draw(animator, 30);
+        animator.seekTo(0);
+        draw(animator, 30);
+        assertCalls("A", "B", "A", "B");
+    }
+
+    @Test
+    public void progress_roundTripsWhenTweensAreShorterThanAFrame() throws Exception {
+        TweenAnimator.Composer composer = TweenAnimator.composer(new DisplayObject());
+        for (int i = 0; i < 10; i++) {
+            composer.to(15, i, 0);
+        }
+        TweenAnimator animator = setUp(composer.end());
+        assertEquals(150, animator.getDuration());
+
+        draw(animator, 1);
+        animator.setProgress(0.5f);
+        draw(animator, 1);
+        assertEquals(0.5f, animator.getProgress(), 0.001f);
+    }
+
+    @Test
+    public void progress_roundTripsWithDurationsNotMultiplesOfTheFrame() throws Exception {
+        TweenAnimator animator = TweenAnimator.composer(new DisplayObject())
+                .to(100, 10, 0)
+                .to(50, 20, 0)
+                .to(70, 30, 0)
+                .end();
+        // 16 ms a baked parameter, which divides none of the durations
+        animator.setUp(60);
+        // the last parameter of a tween holds the rest of it, which is shorter than two frames
+        float tolerance = 2 * 16f / animator.getDuration();
+
+        draw(animator, 1);
+        for (float progress = 0; progress < 1; progress += 0.05f) {
+            animator.setProgress(progress);
+            draw(animator, 1);
+            float actual = animator.getProgress();
+            // the position is rounded to a millisecond, and the last parameter is at 1
+            assertTrue(actual <= progress + 0.5f / animator.getDuration() + 0.001f || actual == 1f);
+            assertTrue(actual > progress - tolerance);
+
+            // the progress of a baked parameter seeks to the same parameter
+            animator.setProgress(actual);
+            draw(animator, 1);
+            assertEquals(actual, animator.getProgress(), 0.001f);
+        }
+    }
+
+    @Test
+    public void timedCallBack_isCalledInOrderWithTweenCallbacks() throws Exception {
+        TweenAnimator animator = setUp(mComposer.callAt(100, record("at 100")).callAt(50, record("at 50")).end());
+        draw(animator, 30);
+        assertCalls("at 50", "A", "at 100", "B");
+    }
+
+    @Test
+    public void timedCallBack_isCalledInBothDirections() throws Exception {
+        TweenAnimator animator = setUp(mComposer.callAt(50, record("event")).yoyo(1).end());
+        draw(animator, 60);
+        assertCalls("event", "A", "B", "B", "event", "A");
+    }
+
+    @Test
+    public void timedCallBack_isCalledOnceWhenSkipped() throws Exception {
+        TweenAnimator animator = setUp(mComposer.call(50, record("event")).repeat(1).end());
+        animator.setTimeScale(7);
+        draw(animator, 20);
+        assertCalls("A", "event", "B", "A", "event", "B");
+    }
+
+    @Test
+    public void seekForward_firesTimedCallBacksJumpedOver() throws Exception {
+        TweenAnimator animator = setUp(mComposer.callAt(50, record("event")).end());
+        animator.setSeekCallbackPolicy(SeekCallbackPolicy.FIRE);
+        draw(animator, 1);
+        animator.seekTo(150);
+        draw(animator, 1);
+        assertCalls("event", "A");
+    }
+
+    @Test
+    public void marker_isSeekedTo() throws Exception {
+        TweenAnimator animator = setUp(mComposer.marker("end").marker("middle", 100).end());
+        assertEquals(100, animator.getMarkerPosition("middle"));
+        assertEquals(200, animator.getMarkerPosition("end"));
+        assertEquals(-1, animator.getMarkerPosition("none"));
+
+        draw(animator, 1);
+        animator.pause(true);
+        animator.seekTo("middle");
+        draw(animator, 1);
+        assertEquals(10f, mParameter.x, 0.001f);
+        animator.seekTo("none");
+        draw(animator, 1);
+        assertEquals(10f, mParameter.x, 0.001f);
+    }
+
+    private TweenAnimator setUp(TweenAnimator animator) {
+        // 10 ms a baked parameter
+        animator.setUp(100);
+        return animator;
+    }
+
+    private void draw(TweenAnimator animator, int frames) {
+        for (int i = 0; i < frames; i++) {
+            animator.updateAnimParam(mParameter);
+        }
+    }
+
+    private AnimCallBack record(final String name) {
+        return new AnimCallBack() {
+            @Override
+            public void call() {
+                mCalls.add(name);
+            }
+        };
+    }
+
+    private void assertCalls(String... calls) {
+        assertEquals(Arrays.asList(calls), mCalls);
+    }
+}
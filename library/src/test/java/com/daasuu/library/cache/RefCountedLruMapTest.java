@@ -0,0 +1,114 @@
+package com.daasuu.library.cache;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RefCountedLruMapTest {
+
+    /**
+     * Values are their own size in bytes, and values in mStale are treated like recycled bitmaps.
+     */
+    private final Set<Long> mStale = new HashSet<>();
+
+    private final RefCountedLruMap<String, Long> mMap = new RefCountedLruMap<String, Long>() {
+        @Override
+        protected long sizeOf(Long value) {
+            return value;
+        }
+
+        @Override
+        protected boolean isStale(Long value) {
+            return mStale.contains(value);
+        }
+    };
+
+    @Test
+    public void acquire_countsHitsAndMisses() throws Exception {
+        assertNull(mMap.acquire("a"));
+        mMap.release(mMap.put("a", 10L));
+
+        RefCountedLruMap.Entry<Long> entry = mMap.acquire("a");
+
+        assertEquals(Long.valueOf(10L), entry.getValue());
+        assertEquals(1, entry.getRefCount());
+        assertEquals(1, mMap.getHitCount());
+        assertEquals(1, mMap.getMissCount());
+    }
+
+    @Test
+    public void put_existingKeyRetainsTheCachedValue() throws Exception {
+        RefCountedLruMap.Entry<Long> first = mMap.put("a", 10L);
+        RefCountedLruMap.Entry<Long> second = mMap.put("a", 20L);
+
+        assertSame(first, second);
+        assertEquals(Long.valueOf(10L), second.getValue());
+        assertEquals(2, second.getRefCount());
+        assertEquals(10L, mMap.getBytes());
+    }
+
+    @Test
+    public void put_replacesAStaleValue() throws Exception {
+        mMap.release(mMap.put("a", 10L));
+        mStale.add(10L);
+
+        assertNull(mMap.acquire("a"));
+        RefCountedLruMap.Entry<Long> entry = mMap.put("a", 20L);
+
+        assertEquals(Long.valueOf(20L), entry.getValue());
+        assertEquals(20L, mMap.getBytes());
+    }
+
+    @Test
+    public void trimToSize_neverEvictsARetainedValue() throws Exception {
+        RefCountedLruMap.Entry<Long> a = mMap.put("a", 10L);
+        RefCountedLruMap.Entry<Long> b = mMap.put("b", 20L);
+        mMap.retain(b);
+        mMap.release(b);
+
+        assertNull(mMap.trimToSize(0));
+        assertEquals(30L, mMap.getBytes());
+
+        mMap.release(a);
+        assertEquals(Arrays.asList(10L), mMap.trimToSize(0));
+
+        mMap.release(b);
+        assertEquals(Arrays.asList(20L), mMap.trimToSize(0));
+        assertEquals(0L, mMap.getBytes());
+        assertEquals(2, mMap.getEvictionCount());
+    }
+
+    @Test
+    public void trimToSize_evictsTheLeastRecentlyUsedFirst() throws Exception {
+        mMap.release(mMap.put("a", 10L));
+        mMap.release(mMap.put("b", 20L));
+        mMap.release(mMap.put("c", 30L));
+        // touch a, so b becomes the least recently used
+        mMap.release(mMap.acquire("a"));
+
+        List<Long> evicted = mMap.trimToSize(40);
+
+        assertEquals(Arrays.asList(20L), evicted);
+        assertEquals(40L, mMap.getBytes());
+        assertNull(mMap.acquire("b"));
+        assertNotNull(mMap.acquire("a"));
+        assertNotNull(mMap.acquire("c"));
+    }
+
+    @Test
+    public void trimToSize_skipsRetainedValuesInLruOrder() throws Exception {
+        RefCountedLruMap.Entry<Long> a = mMap.put("a", 10L);
+        mMap.release(mMap.put("b", 20L));
+        mMap.release(mMap.put("c", 30L));
+
+        // a is the least recently used, but still referenced
+        assertEquals(Arrays.asList(20L, 30L), mMap.trimToSize(15));
+        assertEquals(10L, mMap.getBytes());
+        assertSame(a, mMap.acquire("a"));
+    }
+}
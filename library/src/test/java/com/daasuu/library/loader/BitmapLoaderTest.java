@@ -0,0 +1,36 @@
+package com.daasuu.library.loader;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BitmapLoaderTest {
+
+    @Test
+    public void calculateInSampleSize_noRequiredSizeKeepsFullSize() throws Exception {
+        assertEquals(1, BitmapLoader.calculateInSampleSize(1024, 1024, 0, 0));
+        assertEquals(1, BitmapLoader.calculateInSampleSize(1024, 1024, 100, 0));
+        assertEquals(1, BitmapLoader.calculateInSampleSize(1024, 1024, -1, 100));
+    }
+
+    @Test
+    public void calculateInSampleSize_smallerSourceKeepsFullSize() throws Exception {
+        assertEquals(1, BitmapLoader.calculateInSampleSize(100, 100, 200, 200));
+        assertEquals(1, BitmapLoader.calculateInSampleSize(100, 100, 100, 100));
+    }
+
+    @Test
+    public void calculateInSampleSize_halvesWhileBothSidesStayLargeEnough() throws Exception {
+        assertEquals(2, BitmapLoader.calculateInSampleSize(200, 200, 100, 100));
+        assertEquals(4, BitmapLoader.calculateInSampleSize(1024, 1024, 256, 256));
+        assertEquals(4, BitmapLoader.calculateInSampleSize(1023, 1023, 200, 200));
+        assertEquals(2, BitmapLoader.calculateInSampleSize(1023, 1023, 256, 256));
+    }
+
+    @Test
+    public void calculateInSampleSize_neverGoesBelowEitherRequiredSide() throws Exception {
+        // the height would allow 8, but the width only allows 2
+        assertEquals(2, BitmapLoader.calculateInSampleSize(400, 1600, 200, 200));
+        assertEquals(2, BitmapLoader.calculateInSampleSize(1600, 400, 200, 200));
+    }
+}
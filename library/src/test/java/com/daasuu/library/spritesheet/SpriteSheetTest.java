@@ -0,0 +1,123 @@
+package com.daasuu.library.spritesheet;
+
+import com.daasuu.library.callback.AnimCallBack;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SpriteSheetTest {
+
+    private int mFinishCount;
+
+    private SpriteSheet create(int frameNum) {
+        SpriteSheet spriteSheet = new SpriteSheet(10, 20, frameNum, 2);
+        spriteSheet.setSpriteSheetFinishCallback(new AnimCallBack() {
+            @Override
+            public void call() {
+                mFinishCount++;
+            }
+        });
+        return spriteSheet;
+    }
+
+    @Test
+    public void advance_movesTheSourceRectangle() throws Exception {
+        SpriteSheet spriteSheet = create(4);
+
+        spriteSheet.advance(3);
+
+        assertEquals(3, spriteSheet.getFrameIndex());
+        assertEquals(10f, spriteSheet.dx, 0f);
+        assertEquals(20f, spriteSheet.dy, 0f);
+    }
+
+    @Test
+    public void advance_stopsAtTheEndAndFiresOnce() throws Exception {
+        SpriteSheet spriteSheet = create(4);
+
+        spriteSheet.advance(2);
+        assertEquals(0, mFinishCount);
+        assertFalse(spriteSheet.isFinished());
+
+        spriteSheet.advance(10);
+        assertTrue(spriteSheet.isFinished());
+        assertEquals(3, spriteSheet.getFrameIndex());
+        assertEquals(1, mFinishCount);
+
+        spriteSheet.advance(10);
+        spriteSheet.updateFrame();
+        assertEquals(1, mFinishCount);
+    }
+
+    @Test
+    public void advance_countsLoopsAndFiresOnceAfterTheLast() throws Exception {
+        SpriteSheet spriteSheet = create(4);
+        spriteSheet.spriteLoop = true;
+        spriteSheet.spriteLoopNum = 2;
+
+        spriteSheet.advance(4);
+        assertFalse(spriteSheet.isFinished());
+        assertEquals(0, mFinishCount);
+
+        spriteSheet.advance(100);
+        assertTrue(spriteSheet.isFinished());
+        assertEquals(1, mFinishCount);
+    }
+
+    @Test
+    public void advance_endlessLoopSkipsWholeLoops() throws Exception {
+        SpriteSheet spriteSheet = create(4);
+        spriteSheet.spriteLoop = true;
+
+        spriteSheet.advance(4 * 1000 + 1);
+
+        assertFalse(spriteSheet.isFinished());
+        assertEquals(1, spriteSheet.getFrameIndex());
+        // the skipped loops are not reported one by one
+        assertEquals(1, mFinishCount);
+    }
+
+    @Test
+    public void advance_pingPongEndsBackAtTheFirstFrame() throws Exception {
+        SpriteSheet spriteSheet = create(3);
+        spriteSheet.pingPong = true;
+
+        spriteSheet.advance(2);
+        assertEquals(2, spriteSheet.getFrameIndex());
+        assertFalse(spriteSheet.isFinished());
+
+        spriteSheet.advance(1);
+        assertEquals(1, spriteSheet.getFrameIndex());
+
+        spriteSheet.advance(1);
+        assertEquals(0, spriteSheet.getFrameIndex());
+        assertTrue(spriteSheet.isFinished());
+        assertEquals(1, mFinishCount);
+    }
+
+    @Test
+    public void advance_pausedDoesNotMove() throws Exception {
+        SpriteSheet spriteSheet = create(4);
+        spriteSheet.setSpritePause(true);
+
+        spriteSheet.advance(10);
+
+        assertEquals(0, spriteSheet.getFrameIndex());
+        assertEquals(0, mFinishCount);
+    }
+
+    @Test
+    public void rewind_rearmsTheFinishCallback() throws Exception {
+        SpriteSheet spriteSheet = create(4);
+        spriteSheet.advance(3);
+        assertEquals(1, mFinishCount);
+
+        spriteSheet.rewind();
+        assertFalse(spriteSheet.isFinished());
+        assertEquals(0, spriteSheet.getFrameIndex());
+
+        spriteSheet.advance(3);
+        assertEquals(2, mFinishCount);
+    }
+}
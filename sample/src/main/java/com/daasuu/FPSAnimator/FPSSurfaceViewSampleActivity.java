@@ -11,6 +11,7 @@ import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
 
 import com.daasuu.FPSAnimator.util.UIUtil;
+import com.daasuu.library.CallbackDispatchMode;
 import com.daasuu.library.DisplayObject;
 import com.daasuu.library.FPSSurfaceView;
 import com.daasuu.library.callback.AnimCallBack;
@@ -141,6 +142,7 @@ public class FPSSurfaceViewSampleActivity extends AppCompatActivity {
 
 
         mFpsSurfaceView
+                .callbackDispatchMode(CallbackDispatchMode.DEFERRED)
                 .addChild(tweenParabolic)
                 .addChild(tweenSprite)
                 .addChild(bitmapDisplayA)
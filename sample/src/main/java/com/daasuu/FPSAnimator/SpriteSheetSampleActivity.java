@@ -3,7 +3,6 @@ package com.daasuu.FPSAnimator;
 import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Bundle;
 import android.os.Handler;
 import android.support.v7.app.AppCompatActivity;
@@ -13,7 +12,9 @@ import com.daasuu.library.Container;
 import com.daasuu.library.DisplayObject;
 import com.daasuu.library.FPSTextureView;
 import com.daasuu.library.callback.AnimCallBack;
+import com.daasuu.library.callback.BitmapCallBack;
 import com.daasuu.library.drawer.SpriteSheetDrawer;
+import com.daasuu.library.loader.BitmapLoader;
 import com.daasuu.library.spritesheet.SpriteSheet;
 import com.daasuu.library.util.Util;
 
@@ -27,6 +28,9 @@ public class SpriteSheetSampleActivity extends AppCompatActivity {
     private Container mSparkContainer = new Container();
     private Container mMainContainer = new Container();
 
+    private SpriteSheetDrawer mSpriteSheetDrawer;
+    private SpriteSheetDrawer mSpriteSheetDrawer2;
+
     public static void startActivity(Context context) {
         Intent intent = new Intent(context, SpriteSheetSampleActivity.class);
         context.startActivity(intent);
@@ -45,22 +49,20 @@ public class SpriteSheetSampleActivity extends AppCompatActivity {
         final float frameWidth = Util.convertDpToPixel(82.875f, this);
         final float frameHeight = Util.convertDpToPixel(146.25f, this);
 
-        Bitmap baseSpriteBitmapB = BitmapFactory.decodeResource(getResources(), R.drawable.spritesheet_grant);
-        final Bitmap spriteBitmapB = Bitmap.createScaledBitmap(
-                baseSpriteBitmapB,
-                (int) Util.convertDpToPixel(1024f, this),
-                (int) Util.convertDpToPixel(1024f, this),
-                false);
-
-        SpriteSheetDrawer spriteSheetDrawer = new SpriteSheetDrawer(
-                spriteBitmapB,
-                frameWidth,
-                frameHeight, 64, 12)
+        final int sheetSize = (int) Util.convertDpToPixel(1024f, this);
+        BitmapLoader bitmapLoader = BitmapLoader.getInstance(this);
+
+        // decoded in the background, and drawn when ready
+        mSpriteSheetDrawer = bitmapLoader.loadSpriteSheetDrawer(
+                R.drawable.spritesheet_grant,
+                new SpriteSheet(frameWidth, frameHeight, 64, 12),
+                sheetSize,
+                sheetSize)
                 .spriteLoop(true);
 
         DisplayObject displayObject = new DisplayObject();
         displayObject
-                .with(spriteSheetDrawer)
+                .with(mSpriteSheetDrawer)
                 .tween()
                 .tweenLoop(true)
                 .transform(-Util.convertDpToPixel(82.875f, this), UIUtil.getWindowHeight(this) / 2)
@@ -70,11 +72,11 @@ public class SpriteSheetSampleActivity extends AppCompatActivity {
         List<Integer> list = new ArrayList<Integer>();
         for (int i = 26; i < 64; i++) list.add(i);
 
-        final SpriteSheetDrawer spriteSheetDrawer2 = new SpriteSheetDrawer(
-                spriteBitmapB,
-                frameWidth,
-                frameHeight,
-                64)
+        mSpriteSheetDrawer2 = bitmapLoader.loadSpriteSheetDrawer(
+                R.drawable.spritesheet_grant,
+                new SpriteSheet(frameWidth, frameHeight, 64, 12),
+                sheetSize,
+                sheetSize)
                 .dpSize(this)
                 .customFrameList(list)
                 .spriteLoop(true);
@@ -82,7 +84,7 @@ public class SpriteSheetSampleActivity extends AppCompatActivity {
 
         final DisplayObject parabolicDisplay = new DisplayObject();
         parabolicDisplay
-                .with(spriteSheetDrawer2)
+                .with(mSpriteSheetDrawer2)
                 .parabolic()
                 .transform(0, UIUtil.getWindowHeight(this) / 2)
                 .initialVelocityY(-30)
@@ -98,14 +100,20 @@ public class SpriteSheetSampleActivity extends AppCompatActivity {
                 .addChild(parabolicDisplay)
                 .addChild(displayObject);
 
-        createSparkles();
+        bitmapLoader.load(R.drawable.spritesheet_sparkle, 0, 0, new BitmapCallBack() {
+            @Override
+            public void call(Bitmap bitmap) {
+                if (bitmap != null) {
+                    createSparkles(bitmap);
+                }
+            }
+        });
     }
 
 
-    private void createSparkles() {
+    private void createSparkles(Bitmap spriteBitmapA) {
 
 
-        Bitmap spriteBitmapA = BitmapFactory.decodeResource(getResources(), R.drawable.spritesheet_sparkle);
         int spriteBitmapANum = 13;
 
         float displayWidth = UIUtil.getWindowWidth(this);
@@ -153,4 +161,12 @@ public class SpriteSheetSampleActivity extends AppCompatActivity {
         super.onStop();
         mFPSTextureView.tickStop();
     }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // give the cached sheet back, even if it is still being decoded
+        mSpriteSheetDrawer.release();
+        mSpriteSheetDrawer2.release();
+    }
 }
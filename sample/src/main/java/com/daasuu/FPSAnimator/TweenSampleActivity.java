@@ -11,6 +11,7 @@ import android.support.v4.content.ContextCompat;
 import android.support.v7.app.AppCompatActivity;
 
 import com.daasuu.FPSAnimator.util.UIUtil;
+import com.daasuu.library.CallbackDispatchMode;
 import com.daasuu.library.DisplayObject;
 import com.daasuu.library.FPSTextureView;
 import com.daasuu.library.callback.AnimCallBack;
@@ -88,6 +89,7 @@ public class TweenSampleActivity extends AppCompatActivity {
                 .end();
 
         mFPSTextureView
+                .callbackDispatchMode(CallbackDispatchMode.DEFERRED)
                 .addChild(bitmapDisplayA)
                 .addChild(bitmapDisplayB)
                 .addChild(textDisplay);